@@ -0,0 +1,69 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.ColumnComparisonStrategies;
+import com.github.dmn1k.table.diff.TableCell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each of the {@link ColumnComparisonStrategies} on equal, different and missing cells
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ColumnComparisonStrategiesBenchmark {
+    @Param({"equal", "different", "missing"})
+    private String cells;
+
+    private TableCell a;
+    private TableCell b;
+
+    @Setup
+    public void setUp() {
+        a = TableCell.create("2017-11-24T08:48:00.000+01:00", false);
+        switch (cells) {
+            case "equal":
+                b = TableCell.create(new String("2017-11-24T08:48:00.000+01:00"), false);
+                break;
+            case "different":
+                b = TableCell.create("2017-11-24T08:48:00.000+01:01", false);
+                break;
+            default:
+                b = TableCell.MISSING_CELL;
+        }
+    }
+
+    @Benchmark
+    public boolean considerMissingColumnsAsChange() {
+        return ColumnComparisonStrategies.CONSIDER_MISSING_COLUMNS_AS_CHANGE.isSame(a, b);
+    }
+
+    @Benchmark
+    public boolean ignoreAllMissingColumns() {
+        return ColumnComparisonStrategies.IGNORE_ALL_MISSING_COLUMNS.isSame(a, b);
+    }
+
+    @Benchmark
+    public boolean ignoreMissingColumnsInNewTable() {
+        return ColumnComparisonStrategies.IGNORE_MISSING_COLUMNS_IN_NEW_TABLE.isSame(a, b);
+    }
+
+    @Benchmark
+    public boolean ignoreMissingColumnsInOldTable() {
+        return ColumnComparisonStrategies.IGNORE_MISSING_COLUMNS_IN_OLD_TABLE.isSame(a, b);
+    }
+}
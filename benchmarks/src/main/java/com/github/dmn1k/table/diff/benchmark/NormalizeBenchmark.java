@@ -0,0 +1,59 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.Table;
+import com.github.dmn1k.table.diff.TableHeader;
+import io.vavr.collection.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Table#normalize(List)} with identical, reordered and extended target headers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NormalizeBenchmark {
+    @Param({"1000", "100000"})
+    private int rowCount;
+
+    private Table table;
+    private List<TableHeader> reorderedHeaders;
+    private List<TableHeader> supersetHeaders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = Tables.generate(rowCount, 42);
+        reorderedHeaders = Tables.HEADERS.reverse();
+        supersetHeaders = Tables.HEADERS.insert(2, TableHeader.create("added"));
+    }
+
+    @Benchmark
+    public Table identicalHeaders() {
+        return table.normalize(Tables.HEADERS);
+    }
+
+    @Benchmark
+    public Table reorderedHeaders() {
+        return table.normalize(reorderedHeaders);
+    }
+
+    @Benchmark
+    public Table supersetHeaders() {
+        return table.normalize(supersetHeaders);
+    }
+}
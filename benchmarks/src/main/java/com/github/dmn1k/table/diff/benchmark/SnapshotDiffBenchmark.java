@@ -0,0 +1,72 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.Table;
+import com.github.dmn1k.table.diff.TableDiffer;
+import com.github.dmn1k.table.diff.TableSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TableDiffer#diff(Table, TableSnapshot, java.util.function.Consumer)} of append-heavy tables, where most
+ * keys of the new table don't exist in the snapshot.
+ * Larger snapshots need more heap than the forked JVM gets, e.g. a snapshot of 1000000 rows with a growth of 10
+ * (a new table of 10 million rows) doesn't fit into 4 GB. Run them with a larger heap, e.g.
+ * {@code -p snapshotRowCount=1000000 -jvmArgsAppend -Xmx16g}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SnapshotDiffBenchmark {
+    @Param({"100000"})
+    private int snapshotRowCount;
+
+    /**
+     * Rows of the new table per row of the snapshot
+     */
+    @Param({"1", "10"})
+    private int growth;
+
+    private final TableDiffer tableDiffer = new TableDiffer();
+    private Table newTable;
+    private Path file;
+    private TableSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        newTable = Tables.generate(snapshotRowCount * growth, 42);
+        file = Files.createTempFile("snapshot-benchmark", ".tds");
+        TableSnapshot.write(Tables.generate(snapshotRowCount, 42, 0.01, 7), file);
+        snapshot = TableSnapshot.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        snapshot.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public void diff(Blackhole blackhole) {
+        tableDiffer.diff(newTable, snapshot, blackhole::consume);
+    }
+}
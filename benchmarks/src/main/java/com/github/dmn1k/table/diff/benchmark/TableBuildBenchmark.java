@@ -0,0 +1,62 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.Table;
+import com.github.dmn1k.table.diff.TableBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a table row by row via {@link Table#addRow(String...)} compared to {@link TableBuilder}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TableBuildBenchmark {
+    @Param({"1000", "10000"})
+    private int rowCount;
+
+    private String[][] rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new String[rowCount][];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = Tables.row(i, random);
+        }
+    }
+
+    @Benchmark
+    public Table addRow() {
+        Table table = Table.create(Tables.HEADERS);
+        for (String[] row : rows) {
+            table = table.addRow(row);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public Table builder() {
+        TableBuilder builder = Table.builder(Tables.HEADERS);
+        for (String[] row : rows) {
+            builder.addRow(row);
+        }
+        return builder.build();
+    }
+}
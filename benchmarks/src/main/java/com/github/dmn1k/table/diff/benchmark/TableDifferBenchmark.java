@@ -0,0 +1,52 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.Table;
+import com.github.dmn1k.table.diff.TableDiffResult;
+import com.github.dmn1k.table.diff.TableDiffer;
+import io.vavr.collection.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TableDiffer#diff(Table, Table)} for different table sizes and ratios of changed rows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TableDifferBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rowCount;
+
+    @Param({"0.0", "0.01", "0.5"})
+    private double changeRatio;
+
+    private final TableDiffer tableDiffer = new TableDiffer();
+    private Table newTable;
+    private Table oldTable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        oldTable = Tables.generate(rowCount, 42);
+        newTable = Tables.generate(rowCount, 42, changeRatio, 7);
+    }
+
+    @Benchmark
+    public List<TableDiffResult> diff() {
+        return tableDiffer.diff(newTable, oldTable);
+    }
+}
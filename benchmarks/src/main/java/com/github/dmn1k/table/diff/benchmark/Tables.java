@@ -0,0 +1,70 @@
+package com.github.dmn1k.table.diff.benchmark;
+
+import com.github.dmn1k.table.diff.Table;
+import com.github.dmn1k.table.diff.TableBuilder;
+import com.github.dmn1k.table.diff.TableHeader;
+import io.vavr.collection.List;
+
+import java.util.Random;
+
+/**
+ * Generates tables for the benchmarks
+ */
+final class Tables {
+    static final List<TableHeader> HEADERS = List.of(
+            TableHeader.createPrimaryKey("id"),
+            TableHeader.create("name"),
+            TableHeader.create("status"),
+            TableHeader.create("amount"),
+            TableHeader.create("country")
+    );
+
+    private static final String[] STATUSES = {"OPEN", "CLOSED", "PENDING"};
+    private static final String[] COUNTRIES = {"DE", "FR", "US", "JP"};
+
+    private Tables() {
+        // static class
+    }
+
+    /**
+     * @param rowCount number of rows
+     * @param seed     seed for the generated values
+     * @return a table with HEADERS and rowCount rows
+     */
+    static Table generate(int rowCount, long seed) {
+        return generate(rowCount, seed, 0.0, 0L);
+    }
+
+    /**
+     * Generates a table where roughly changeRatio of the rows differ from the table generated with baseSeed
+     *
+     * @param rowCount    number of rows
+     * @param baseSeed    seed of the base table
+     * @param changeRatio ratio of rows which differ from the base table, between 0 and 1
+     * @param changeSeed  seed deciding which rows change
+     * @return a table with HEADERS and rowCount rows
+     */
+    static Table generate(int rowCount, long baseSeed, double changeRatio, long changeSeed) {
+        Random base = new Random(baseSeed);
+        Random changes = new Random(changeSeed);
+        TableBuilder builder = Table.builder(HEADERS);
+        for (int i = 0; i < rowCount; i++) {
+            String[] row = row(i, base);
+            if (changes.nextDouble() < changeRatio) {
+                row[3] = String.valueOf(changes.nextInt(1_000_000));
+            }
+            builder.addRow(row);
+        }
+        return builder.build();
+    }
+
+    static String[] row(int id, Random random) {
+        return new String[]{
+                String.format("%09d", id),
+                "customer-" + random.nextInt(100_000),
+                STATUSES[random.nextInt(STATUSES.length)],
+                String.valueOf(random.nextInt(1_000_000)),
+                COUNTRIES[random.nextInt(COUNTRIES.length)]
+        };
+    }
+}
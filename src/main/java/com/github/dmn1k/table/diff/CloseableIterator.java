@@ -0,0 +1,42 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+
+/**
+ * A lazy iterator which holds resources, e.g. temporary files. The resources are released once the iterator has been
+ * read completely. Iterators which are not read completely have to be closed
+ *
+ * @param <T> element type
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+    /**
+     * @param iterator the elements
+     * @param onClose  releases the resources of the elements, called on every call of close
+     * @param <T>      element type
+     * @return an iterator over the elements of iterator which calls onClose when it is closed
+     */
+    static <T> CloseableIterator<T> of(java.util.Iterator<? extends T> iterator, Runnable onClose) {
+        return new CloseableIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+                onClose.run();
+            }
+        };
+    }
+
+    /**
+     * Releases the resources of this iterator. Further elements can't be read afterwards
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,140 @@
+package com.github.dmn1k.table.diff;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Column-wise storage of the cell values belonging to one {@link TableHeader}.
+ * Missing cells are tracked in a BitSet (or a bitmap in a mapped file) instead of dedicated cell objects.
+ */
+@Getter(AccessLevel.PACKAGE)
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+abstract class Column {
+    /**
+     * Null for columns which override {@link #isMissing(int)} and {@link #copyMissing()}
+     */
+    @Getter(AccessLevel.NONE)
+    private final BitSet missing;
+    private final boolean primaryKey;
+    /**
+     * Values parsed by {@link ColumnComparator}s, created on first use
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Map<Object, Object> parsedValues;
+
+    /**
+     * @param cell the only cell of the column
+     * @return a column holding exactly one cell
+     */
+    static Column of(TableCell cell) {
+        BitSet missing = new BitSet(1);
+        missing.set(0, cell.isMissing());
+        return new StringColumn(new String[]{cell.getValue()}, missing, cell.isPrimaryKey());
+    }
+
+    /**
+     * @param rowCount number of rows
+     * @return a column where every cell is missing
+     */
+    static Column missing(int rowCount) {
+        BitSet missing = new BitSet(rowCount);
+        missing.set(0, rowCount);
+        return new StringColumn(new String[0], missing, false);
+    }
+
+    /**
+     * @param row index of a row which is not missing
+     * @return the stored value of the row
+     */
+    abstract String storedValue(int row);
+
+    /**
+     * @return the number of rows which can be accessed, at least the row count of the table
+     */
+    abstract int size();
+
+    /**
+     * Parses all values of this column once and caches the result
+     *
+     * @param key    identifies the kind of parsed values
+     * @param parser parses all values of a column
+     * @param <T>    type of the parsed values
+     * @return the cached or newly parsed values
+     */
+    @SuppressWarnings("unchecked")
+    <T> T parsed(Object key, Function<Column, T> parser) {
+        Map<Object, Object> values = parsedValues;
+        if (values == null) {
+            synchronized (this) {
+                if (parsedValues == null) {
+                    parsedValues = new ConcurrentHashMap<>();
+                }
+                values = parsedValues;
+            }
+        }
+        return (T) values.computeIfAbsent(key, k -> parser.apply(this));
+    }
+
+    /**
+     * Compares the values of two cells which are both not missing
+     *
+     * @param row      index of the row in this column
+     * @param other    column to compare against
+     * @param otherRow index of the row in other
+     * @return true if both values are equal
+     */
+    boolean hasEqualValue(int row, Column other, int otherRow) {
+        return Objects.equals(storedValue(row), other.storedValue(otherRow));
+    }
+
+    /**
+     * @param rows indexes of the rows to copy, in order
+     * @return a new column holding copies of the given rows
+     */
+    Column select(int[] rows) {
+        String[] values = new String[rows.length];
+        BitSet selectedMissing = new BitSet(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            if (isMissing(rows[i])) {
+                selectedMissing.set(i);
+            } else {
+                values[i] = storedValue(rows[i]);
+            }
+        }
+        return new StringColumn(values, selectedMissing, primaryKey);
+    }
+
+    boolean isMissing(int row) {
+        return missing.get(row);
+    }
+
+    /**
+     * @return a modifiable copy of the bitmap of missing cells
+     */
+    BitSet copyMissing() {
+        return (BitSet) missing.clone();
+    }
+
+    /**
+     * @param row index of the row
+     * @return the value of the given row or the value of MISSING_CELL if it is missing
+     */
+    String getValue(int row) {
+        return isMissing(row) ? TableCell.MISSING_CELL.getValue() : storedValue(row);
+    }
+
+    /**
+     * @param row index of the row
+     * @return a cell view of the given row
+     */
+    TableCell getCell(int row) {
+        return isMissing(row) ? TableCell.MISSING_CELL : TableCell.create(storedValue(row), primaryKey);
+    }
+}
@@ -0,0 +1,246 @@
+package com.github.dmn1k.table.diff;
+
+import lombok.EqualsAndHashCode;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.BitSet;
+
+/**
+ * Type-aware comparison of the values of a single column (see {@link TableDiffer#withColumnComparator(String, ColumnComparator)}).
+ * Numbers and timestamps are parsed once per column and cached, so each comparison only compares primitives.
+ * Values which can't be parsed are compared as Strings
+ */
+public abstract class ColumnComparator {
+    private ColumnComparator() {
+        // closed set of comparators
+    }
+
+    /**
+     * @param tolerance maximum absolute difference of values which are considered the same
+     * @return a comparator for integer and decimal numbers, "1.0" and "1" are the same
+     */
+    public static ColumnComparator numeric(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerance must not be negative but was " + tolerance);
+        }
+        return new NumericComparator(tolerance);
+    }
+
+    /**
+     * @return a comparator for ISO-8601 timestamps which compares the instants, e.g. "2018-01-01T10:00:00+01:00"
+     * and "2018-01-01T09:00Z" are the same. Timestamps without offset are interpreted as UTC
+     */
+    public static ColumnComparator timestamp() {
+        return timestamp(DateTimeFormatter.ISO_DATE_TIME);
+    }
+
+    /**
+     * @param formatter parses the timestamps. Timestamps without offset are interpreted as UTC
+     * @return a comparator which compares the instants of timestamps
+     */
+    public static ColumnComparator timestamp(DateTimeFormatter formatter) {
+        return new TimestampComparator(formatter);
+    }
+
+    /**
+     * @return a comparator which ignores the case of Strings
+     */
+    public static ColumnComparator caseInsensitive() {
+        return new TextComparator(true, false);
+    }
+
+    /**
+     * @return a comparator which ignores leading and trailing whitespace
+     */
+    public static ColumnComparator trimmed() {
+        return new TextComparator(false, true);
+    }
+
+    /**
+     * @return a comparator which ignores the case of Strings as well as leading and trailing whitespace
+     */
+    public static ColumnComparator trimmedCaseInsensitive() {
+        return new TextComparator(true, true);
+    }
+
+    /**
+     * Compares two cells which are both not missing
+     */
+    abstract boolean isSame(Column column, int row, Column otherColumn, int otherRow);
+
+    private static final class NumericComparator extends ColumnComparator {
+        private static final byte UNPARSABLE = 0;
+        private static final byte INTEGER = 1;
+        private static final byte DECIMAL = 2;
+
+        private final double tolerance;
+
+        private NumericComparator(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        boolean isSame(Column column, int row, Column otherColumn, int otherRow) {
+            Numbers numbers = column.parsed(Numbers.class, Numbers::parse);
+            Numbers otherNumbers = otherColumn.parsed(Numbers.class, Numbers::parse);
+            byte kind = numbers.kinds[row];
+            byte otherKind = otherNumbers.kinds[otherRow];
+            if (kind == UNPARSABLE || otherKind == UNPARSABLE) {
+                return column.hasEqualValue(row, otherColumn, otherRow);
+            }
+            if (kind == INTEGER && otherKind == INTEGER) {
+                long value = numbers.bits[row];
+                long otherValue = otherNumbers.bits[otherRow];
+                long difference = value - otherValue;
+                boolean overflow = ((value ^ otherValue) & (value ^ difference)) < 0;
+                return !overflow && Math.abs((double) difference) <= tolerance;
+            }
+            double value = numbers.asDouble(row);
+            double otherValue = otherNumbers.asDouble(otherRow);
+            return Double.compare(value, otherValue) == 0 || Math.abs(value - otherValue) <= tolerance;
+        }
+
+        /**
+         * Parsed values of a column: longs or the raw bits of doubles
+         */
+        private static final class Numbers {
+            private final byte[] kinds;
+            private final long[] bits;
+
+            private Numbers(int rowCount) {
+                this.kinds = new byte[rowCount];
+                this.bits = new long[rowCount];
+            }
+
+            static Numbers parse(Column column) {
+                Numbers numbers = new Numbers(column.size());
+                for (int row = 0; row < column.size(); row++) {
+                    String value = column.isMissing(row) ? null : column.storedValue(row);
+                    if (value == null) {
+                        continue;
+                    }
+                    try {
+                        numbers.bits[row] = Long.parseLong(value.trim());
+                        numbers.kinds[row] = INTEGER;
+                    } catch (NumberFormatException notAnInteger) {
+                        try {
+                            numbers.bits[row] = Double.doubleToRawLongBits(Double.parseDouble(value));
+                            numbers.kinds[row] = DECIMAL;
+                        } catch (NumberFormatException notANumber) {
+                            numbers.kinds[row] = UNPARSABLE;
+                        }
+                    }
+                }
+                return numbers;
+            }
+
+            double asDouble(int row) {
+                return kinds[row] == INTEGER ? (double) bits[row] : Double.longBitsToDouble(bits[row]);
+            }
+        }
+    }
+
+    private static final class TimestampComparator extends ColumnComparator {
+        private final DateTimeFormatter formatter;
+        private final TimestampsKey key;
+
+        private TimestampComparator(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+            this.key = new TimestampsKey(formatter);
+        }
+
+        @Override
+        boolean isSame(Column column, int row, Column otherColumn, int otherRow) {
+            Timestamps timestamps = column.parsed(key, this::parse);
+            Timestamps otherTimestamps = otherColumn.parsed(key, this::parse);
+            if (!timestamps.parsed.get(row) || !otherTimestamps.parsed.get(otherRow)) {
+                return column.hasEqualValue(row, otherColumn, otherRow);
+            }
+            return timestamps.seconds[row] == otherTimestamps.seconds[otherRow]
+                    && timestamps.nanos[row] == otherTimestamps.nanos[otherRow];
+        }
+
+        private Timestamps parse(Column column) {
+            Timestamps timestamps = new Timestamps(column.size());
+            for (int row = 0; row < column.size(); row++) {
+                String value = column.isMissing(row) ? null : column.storedValue(row);
+                if (value == null) {
+                    continue;
+                }
+                try {
+                    Instant instant = toInstant(formatter.parse(value.trim()));
+                    timestamps.seconds[row] = instant.getEpochSecond();
+                    timestamps.nanos[row] = instant.getNano();
+                    timestamps.parsed.set(row);
+                } catch (DateTimeException unparsable) {
+                    // compared as String
+                }
+            }
+            return timestamps;
+        }
+
+        private static Instant toInstant(TemporalAccessor temporal) {
+            if (temporal.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return Instant.from(temporal);
+            }
+            if (temporal.isSupported(ChronoField.NANO_OF_DAY)) {
+                return LocalDateTime.from(temporal).toInstant(ZoneOffset.UTC);
+            }
+            return LocalDate.from(temporal).atStartOfDay().toInstant(ZoneOffset.UTC);
+        }
+
+        /**
+         * Timestamps parsed with equal formatters are shared between comparators
+         */
+        @EqualsAndHashCode
+        private static final class TimestampsKey {
+            private final DateTimeFormatter formatter;
+
+            private TimestampsKey(DateTimeFormatter formatter) {
+                this.formatter = formatter;
+            }
+        }
+
+        private static final class Timestamps {
+            private final long[] seconds;
+            private final int[] nanos;
+            private final BitSet parsed = new BitSet();
+
+            private Timestamps(int rowCount) {
+                this.seconds = new long[rowCount];
+                this.nanos = new int[rowCount];
+            }
+        }
+    }
+
+    private static final class TextComparator extends ColumnComparator {
+        private final boolean ignoreCase;
+        private final boolean trim;
+
+        private TextComparator(boolean ignoreCase, boolean trim) {
+            this.ignoreCase = ignoreCase;
+            this.trim = trim;
+        }
+
+        @Override
+        boolean isSame(Column column, int row, Column otherColumn, int otherRow) {
+            String value = column.storedValue(row);
+            String otherValue = otherColumn.storedValue(otherRow);
+            if (value == null || otherValue == null) {
+                return value == otherValue;
+            }
+            if (trim) {
+                value = value.trim();
+                otherValue = otherValue.trim();
+            }
+            return ignoreCase ? value.equalsIgnoreCase(otherValue) : value.equals(otherValue);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.github.dmn1k.table.diff;
 
 import io.vavr.Function2;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.Set;
 
 import java.util.Objects;
 
@@ -9,17 +11,35 @@ public final class ColumnComparisonStrategies {
         // static class
     }
 
-    public static final Function2<TableCell, TableCell, Boolean> CONSIDER_MISSING_COLUMNS_AS_CHANGE =
+    public static final ColumnComparisonStrategy CONSIDER_MISSING_COLUMNS_AS_CHANGE =
             (a, b) -> !a.isMissing() && !b.isMissing() && Objects.equals(a.getValue(), b.getValue());
 
-    public static final Function2<TableCell, TableCell, Boolean> IGNORE_ALL_MISSING_COLUMNS =
-            (a, b) -> a.isMissing() || b.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.apply(a, b);
-
-    public static final Function2<TableCell, TableCell, Boolean> IGNORE_MISSING_COLUMNS_IN_NEW_TABLE =
-            (a, b) -> a.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.apply(a, b);
-
-    public static final Function2<TableCell, TableCell, Boolean> IGNORE_MISSING_COLUMNS_IN_OLD_TABLE =
-            (a, b) -> b.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.apply(a, b);
-
+    public static final ColumnComparisonStrategy IGNORE_ALL_MISSING_COLUMNS =
+            (a, b) -> a.isMissing() || b.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.isSame(a, b);
+
+    public static final ColumnComparisonStrategy IGNORE_MISSING_COLUMNS_IN_NEW_TABLE =
+            (a, b) -> a.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.isSame(a, b);
+
+    public static final ColumnComparisonStrategy IGNORE_MISSING_COLUMNS_IN_OLD_TABLE =
+            (a, b) -> b.isMissing() || CONSIDER_MISSING_COLUMNS_AS_CHANGE.isSame(a, b);
+
+    private static final Set<Function2<TableCell, TableCell, Boolean>> VALUE_EQUALITY_STRATEGIES = HashSet.of(
+            CONSIDER_MISSING_COLUMNS_AS_CHANGE,
+            IGNORE_ALL_MISSING_COLUMNS,
+            IGNORE_MISSING_COLUMNS_IN_NEW_TABLE,
+            IGNORE_MISSING_COLUMNS_IN_OLD_TABLE
+    );
+
+    /**
+     * @param comparisonFn a cell comparison fn
+     * @return true if comparisonFn is known to consider two non-missing cells as the same exactly if their values are equal
+     * (apart from columns with a {@link ColumnComparator}, which consider equal values as the same as well)
+     */
+    static boolean considersEqualValuesAsSame(Function2<TableCell, TableCell, Boolean> comparisonFn) {
+        if (comparisonFn instanceof PerColumnComparisonStrategy) {
+            return considersEqualValuesAsSame(((PerColumnComparisonStrategy) comparisonFn).getBaseStrategy());
+        }
+        return VALUE_EQUALITY_STRATEGIES.contains(comparisonFn);
+    }
 
 }
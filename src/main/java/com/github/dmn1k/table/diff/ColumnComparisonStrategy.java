@@ -0,0 +1,34 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.Function2;
+
+/**
+ * Defines if and when two cells are considered the same.
+ * Returns a primitive boolean, so comparing cells doesn't box the result. It is still a {@link Function2}
+ * so it can be used wherever comparison-fns were used before
+ */
+@FunctionalInterface
+public interface ColumnComparisonStrategy extends Function2<TableCell, TableCell, Boolean> {
+
+    /**
+     * @param newCell cell of the new row
+     * @param oldCell cell of the old row
+     * @return true if both cells are considered the same
+     */
+    boolean isSame(TableCell newCell, TableCell oldCell);
+
+    @Override
+    default Boolean apply(TableCell newCell, TableCell oldCell) {
+        return isSame(newCell, oldCell);
+    }
+
+    /**
+     * @param comparisonFn any comparison-fn
+     * @return comparisonFn itself if it already is a strategy, otherwise a strategy delegating to it
+     */
+    static ColumnComparisonStrategy of(Function2<TableCell, TableCell, Boolean> comparisonFn) {
+        return comparisonFn instanceof ColumnComparisonStrategy
+                ? (ColumnComparisonStrategy) comparisonFn
+                : comparisonFn::apply;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.dmn1k.table.diff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Byte-level parser for delimiter separated values (RFC 4180).
+ * Reads chunks from a channel and decodes each field straight into a String, without creating
+ * intermediate Strings or arrays per line. The charset must be ASCII compatible (e.g. UTF-8 or ISO-8859-1)
+ */
+final class CsvParser {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * Never matches, as bytes are compared unsigned (0..255)
+     */
+    static final int NO_QUOTE = -1;
+
+    /**
+     * Receives the parsed fields of each record
+     */
+    interface Listener {
+        void onField(String value);
+
+        void onEndOfRecord();
+    }
+
+    private enum State {
+        FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED
+    }
+
+    private final int delimiter;
+    private final int quote;
+    private final Charset charset;
+    private byte[] field = new byte[256];
+    private int fieldLength;
+    private int fieldsInRecord;
+    private State state = State.FIELD_START;
+    private boolean skipLineFeed;
+    private long record = 1;
+
+    /**
+     * @param delimiter an ASCII character
+     * @param quote     an ASCII character or {@link #NO_QUOTE}
+     */
+    CsvParser(char delimiter, int quote, Charset charset) {
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.charset = charset;
+    }
+
+    void parse(ReadableByteChannel channel, Listener listener) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        while (channel.read(buffer) != -1) {
+            for (int i = 0; i < buffer.position(); i++) {
+                accept(bytes[i] & 0xff, listener);
+            }
+            buffer.clear();
+        }
+        if (state == State.QUOTED) {
+            throw new IllegalArgumentException("Unterminated quoted field in record " + record);
+        }
+        if (state != State.FIELD_START || fieldsInRecord > 0) {
+            endRecord(listener);
+        }
+    }
+
+    private void accept(int b, Listener listener) {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (b == '\n') {
+                return;
+            }
+        }
+
+        switch (state) {
+            case QUOTED:
+                if (b == quote) {
+                    state = State.QUOTE_IN_QUOTED;
+                } else {
+                    append(b);
+                }
+                return;
+            case QUOTE_IN_QUOTED:
+                if (b == quote) {
+                    append(b);
+                    state = State.QUOTED;
+                    return;
+                }
+                break;
+            case FIELD_START:
+                if (b == quote) {
+                    state = State.QUOTED;
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+
+        if (b == delimiter) {
+            endField(listener);
+        } else if (b == '\n' || b == '\r') {
+            skipLineFeed = b == '\r';
+            if (state != State.FIELD_START || fieldsInRecord > 0) {
+                endRecord(listener);
+            }
+        } else {
+            append(b);
+            state = State.UNQUOTED;
+        }
+    }
+
+    private void append(int b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = (byte) b;
+    }
+
+    private void endField(Listener listener) {
+        listener.onField(new String(field, 0, fieldLength, charset));
+        fieldLength = 0;
+        fieldsInRecord++;
+        state = State.FIELD_START;
+    }
+
+    private void endRecord(Listener listener) {
+        endField(listener);
+        listener.onEndOfRecord();
+        fieldsInRecord = 0;
+        record++;
+    }
+}
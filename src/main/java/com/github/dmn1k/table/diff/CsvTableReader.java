@@ -0,0 +1,202 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import io.vavr.collection.Set;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads CSV/TSV files into {@link Table}s.
+ * The first record contains the header names. Fields are decoded from the raw bytes directly into the
+ * column storage of the table. Gzip compressed input is detected automatically.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CsvTableReader {
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final char delimiter;
+    private final int quote;
+    private final Charset charset;
+    private final Set<String> primaryKeys;
+    private final Map<String, ValueDictionary> dictionaries;
+
+    /**
+     * @return a reader for comma separated values with '"' as quote
+     */
+    public static CsvTableReader csv() {
+        return new CsvTableReader(',', '"', StandardCharsets.UTF_8, HashSet.empty(), HashMap.empty());
+    }
+
+    /**
+     * @return a reader for tab separated values without quoting
+     */
+    public static CsvTableReader tsv() {
+        return new CsvTableReader('\t', CsvParser.NO_QUOTE, StandardCharsets.UTF_8, HashSet.empty(), HashMap.empty());
+    }
+
+    /**
+     * @param delimiter an ASCII character
+     * @return a new copy of this reader with the new delimiter
+     * @throws IllegalArgumentException if the delimiter is not an ASCII character
+     */
+    public CsvTableReader withDelimiter(char delimiter) {
+        checkAscii("Delimiter", delimiter);
+        return new CsvTableReader(delimiter, quote, charset, primaryKeys, dictionaries);
+    }
+
+    /**
+     * @param quote an ASCII character
+     * @return a new copy of this reader with the new quote
+     * @throws IllegalArgumentException if the quote is not an ASCII character
+     */
+    public CsvTableReader withQuote(char quote) {
+        checkAscii("Quote", quote);
+        return new CsvTableReader(delimiter, quote, charset, primaryKeys, dictionaries);
+    }
+
+    public CsvTableReader withoutQuote() {
+        return new CsvTableReader(delimiter, CsvParser.NO_QUOTE, charset, primaryKeys, dictionaries);
+    }
+
+    /**
+     * @param charset an ASCII compatible charset like UTF-8 (the default) or ISO-8859-1
+     * @return a new copy of this reader with the new charset
+     */
+    public CsvTableReader withCharset(Charset charset) {
+        return new CsvTableReader(delimiter, quote, charset, primaryKeys, dictionaries);
+    }
+
+    /**
+     * @param headerNames names of the columns which form the primary key
+     * @return a new copy of this reader which creates primary key-headers for the given columns
+     */
+    public CsvTableReader withPrimaryKeys(String... headerNames) {
+        return new CsvTableReader(delimiter, quote, charset, HashSet.of(headerNames), dictionaries);
+    }
+
+    /**
+     * @param dictionary  dictionary to encode the values with (see {@link TableBuilder#withDictionary})
+     * @param headerNames names of low-cardinality columns to store dictionary encoded
+     * @return a new copy of this reader which encodes the given columns with the dictionary
+     */
+    public CsvTableReader withDictionary(ValueDictionary dictionary, String... headerNames) {
+        return new CsvTableReader(delimiter, quote, charset, primaryKeys,
+                dictionaries.merge(List.of(headerNames).toMap(name -> name, name -> dictionary), (a, b) -> b));
+    }
+
+    /**
+     * @param file a plain or gzip compressed file
+     * @return the table read from the file
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file is malformed or a primary key or dictionary column doesn't exist
+     */
+    public Table read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (isGzip(channel)) {
+                return read(new GZIPInputStream(Channels.newInputStream(channel)));
+            }
+            return read((ReadableByteChannel) channel);
+        }
+    }
+
+    /**
+     * @param in plain or gzip compressed input. Is not closed by this method
+     * @return the table read from the input
+     * @throws IOException if the input can't be read
+     * @throws IllegalArgumentException if the input is malformed or a primary key or dictionary column doesn't exist
+     */
+    public Table read(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+        InputStream plain = magic == GZIP_MAGIC ? new GZIPInputStream(buffered) : buffered;
+        return read(Channels.newChannel(plain));
+    }
+
+    private Table read(ReadableByteChannel channel) throws IOException {
+        TableListener listener = new TableListener();
+        new CsvParser(delimiter, quote, charset).parse(channel, listener);
+        return listener.toTable();
+    }
+
+    private static void checkAscii(String name, char character) {
+        if (character > 127) {
+            throw new IllegalArgumentException(name + " must be an ASCII character but was '" + character + "'");
+        }
+    }
+
+    private static boolean isGzip(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        channel.read(magic, 0);
+        return magic.position() == 2 && (magic.get(0) & 0xff | (magic.get(1) & 0xff) << 8) == GZIP_MAGIC;
+    }
+
+    /**
+     * Collects the header record, then fills a {@link TableBuilder} field by field
+     */
+    private final class TableListener implements CsvParser.Listener {
+        private final java.util.List<String> headerNames = new ArrayList<>();
+        private TableBuilder builder;
+
+        @Override
+        public void onField(String value) {
+            if (builder == null) {
+                headerNames.add(value);
+            } else {
+                builder.appendCell(value);
+            }
+        }
+
+        @Override
+        public void onEndOfRecord() {
+            if (builder == null) {
+                builder = createBuilder();
+            } else {
+                builder.endRow();
+            }
+        }
+
+        Table toTable() {
+            if (builder == null) {
+                builder = createBuilder();
+            }
+            return builder.build();
+        }
+
+        private TableBuilder createBuilder() {
+            TableBuilder tableBuilder = Table.builder(createHeaders());
+            dictionaries.forEach((name, dictionary) -> tableBuilder.withDictionary(dictionary, name));
+            return tableBuilder;
+        }
+
+        private List<TableHeader> createHeaders() {
+            List<String> names = List.ofAll(headerNames);
+            Set<String> unknownPrimaryKeys = primaryKeys.removeAll(names);
+            if (!unknownPrimaryKeys.isEmpty()) {
+                throw new IllegalArgumentException("Primary key columns " + unknownPrimaryKeys.mkString(", ")
+                        + " don't exist. Columns are " + names.mkString(", "));
+            }
+            return names.map(name -> primaryKeys.contains(name)
+                    ? TableHeader.createPrimaryKey(name)
+                    : TableHeader.create(name));
+        }
+    }
+}
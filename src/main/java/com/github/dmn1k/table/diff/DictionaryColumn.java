@@ -0,0 +1,42 @@
+package com.github.dmn1k.table.diff;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * Column which stores one {@link ValueDictionary} code per cell
+ */
+@Getter(AccessLevel.PACKAGE)
+final class DictionaryColumn extends Column {
+    private final int[] codes;
+    private final ValueDictionary dictionary;
+
+    DictionaryColumn(int[] codes, ValueDictionary dictionary, BitSet missing, boolean primaryKey) {
+        super(missing, primaryKey);
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    String storedValue(int row) {
+        return dictionary.decode(codes[row]);
+    }
+
+    /**
+     * Values of columns sharing the same dictionary are equal exactly if their codes are equal
+     */
+    @Override
+    boolean hasEqualValue(int row, Column other, int otherRow) {
+        if (other instanceof DictionaryColumn && ((DictionaryColumn) other).dictionary == dictionary) {
+            return codes[row] == ((DictionaryColumn) other).codes[otherRow];
+        }
+        return super.hasEqualValue(row, other, otherRow);
+    }
+
+    @Override
+    int size() {
+        return codes.length;
+    }
+}
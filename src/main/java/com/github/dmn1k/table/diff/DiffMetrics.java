@@ -0,0 +1,38 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Map;
+import lombok.Value;
+
+/**
+ * Timings and counts of a single diff
+ */
+@Value
+public class DiffMetrics {
+    /**
+     * Summed up duration per phase in nanoseconds
+     */
+    private Map<DiffPhase, Long> phaseNanos;
+    /**
+     * Number of created results per diff-type. Results of types excluded by
+     * {@link TableDiffer#withDiffTypes(DiffType...)} are not created and not counted
+     */
+    private Map<DiffType, Long> counts;
+    /**
+     * Number of rows of both tables
+     */
+    private long rowCount;
+    private long totalNanos;
+    /**
+     * Bytes allocated by the thread which started the diff or -1 if the JVM doesn't support measuring it.
+     * Allocations of other threads (see {@link TableDiffer#withParallelism(int)}) are not included
+     */
+    private long allocatedBytes;
+
+    public long getCount(DiffType diffType) {
+        return counts.get(diffType).getOrElse(0L);
+    }
+
+    public double getRowsPerSecond() {
+        return totalNanos == 0 ? 0 : rowCount * 1e9 / totalNanos;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.dmn1k.table.diff;
+
+/**
+ * Receives timings and counts of the diffs of a {@link TableDiffer} (see {@link TableDiffer#withMetricsListener}),
+ * e.g. to publish them to a metrics registry. Nothing is measured if the listener is {@link #NONE}.
+ * Listeners may be called from multiple threads if the same TableDiffer is used concurrently
+ */
+public interface DiffMetricsListener {
+    /**
+     * The default listener, which disables all measurements
+     */
+    DiffMetricsListener NONE = new DiffMetricsListener() {
+    };
+
+    /**
+     * Called after each phase of a diff
+     *
+     * @param phase         the completed phase
+     * @param durationNanos duration of the phase in nanoseconds
+     */
+    default void onPhase(DiffPhase phase, long durationNanos) {
+    }
+
+    /**
+     * Called once per diff, after the last result has been created.
+     * Lazy diffs complete when their result iterator is exhausted
+     *
+     * @param metrics the metrics of the whole diff
+     */
+    default void onDiffCompleted(DiffMetrics metrics) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.dmn1k.table.diff;
+
+/**
+ * The phases of a diff which are timed by a {@link DiffMetricsListener}.
+ * Phases which don't apply to a kind of diff are not reported
+ */
+public enum DiffPhase {
+    /**
+     * Collecting the headers of both tables
+     */
+    HEADER_SUPERSET,
+    /**
+     * Bringing the rows of both tables into the same column layout
+     */
+    NORMALIZATION,
+    /**
+     * Computing the primary keys of all rows
+     */
+    KEY_EXTRACTION,
+    /**
+     * Indexing the rows of both tables by primary key
+     */
+    MATCHING,
+    /**
+     * Sorting the primary keys or, for streams, the rows
+     */
+    SORTING,
+    /**
+     * Comparing the matched rows and passing the results on, including the time spent by the consumer
+     */
+    COMPARISON
+}
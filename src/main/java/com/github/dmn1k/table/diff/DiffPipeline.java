@@ -0,0 +1,258 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Diffs two row streams in a pipeline of concurrent stages: a reader stage per table, a diff stage and an output
+ * stage. The stages are connected by bounded queues of row batches, so reading the sources (e.g.
+ * {@link JdbcTableSource#stream} or {@link TableFile#rowsSortedByPrimaryKey}), diffing and passing results to the
+ * sink overlap, while a slow stage blocks the stages before it instead of letting the queues grow.
+ * The stages run on virtual threads on Java 21+ and on daemon platform threads on older versions.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class DiffPipeline {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEFAULT_QUEUE_CAPACITY = 4;
+    private static final long POLL_MILLIS = 50;
+    private static final java.util.List<Object> END_OF_STREAM = new ArrayList<>(0);
+
+    private final TableDiffer tableDiffer;
+    private final int batchSize;
+    private final int queueCapacity;
+    /**
+     * Creates the stage threads, null for virtual (Java 21+) or platform threads
+     */
+    private final ThreadFactory threadFactory;
+
+    /**
+     * @param tableDiffer defines how rows are compared
+     * @return a pipeline with batches of 1000 rows and 4 batches per queue
+     */
+    public static DiffPipeline create(TableDiffer tableDiffer) {
+        return new DiffPipeline(tableDiffer, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY, null);
+    }
+
+    /**
+     * @param batchSize number of rows or results passed between stages at once. Defaults to 1000
+     * @return a new copy of this pipeline with the new batch size
+     */
+    public DiffPipeline withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1 but was " + batchSize);
+        }
+        return new DiffPipeline(tableDiffer, batchSize, queueCapacity, threadFactory);
+    }
+
+    /**
+     * @param queueCapacity number of batches each queue between two stages holds before blocking. Defaults to 4
+     * @return a new copy of this pipeline with the new queue capacity
+     */
+    public DiffPipeline withQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1 but was " + queueCapacity);
+        }
+        return new DiffPipeline(tableDiffer, batchSize, queueCapacity, threadFactory);
+    }
+
+    /**
+     * @param threadFactory creates the threads of the reader and diff stages
+     * @return a new copy of this pipeline which uses the thread factory instead of virtual or platform threads
+     */
+    public DiffPipeline withThreadFactory(ThreadFactory threadFactory) {
+        return new DiffPipeline(tableDiffer, batchSize, queueCapacity, threadFactory);
+    }
+
+    /**
+     * Diffs two streams which are both sorted by primary key (see {@link TableDiffer#diffSorted(java.util.Iterator,
+     * java.util.Iterator)}). Blocks until the last result has been passed to sink
+     *
+     * @param newRows rows of the new table, sorted by primary key. Read by the reader stage of the new table
+     * @param oldRows rows of the old table, sorted by primary key. Read by the reader stage of the old table
+     * @param sink    receives the results sorted by primary key. Runs as output stage on the calling thread
+     * @throws RuntimeException the first exception thrown by any stage, after all stages have stopped
+     */
+    public void diffSorted(java.util.Iterator<TableRow> newRows,
+                           java.util.Iterator<TableRow> oldRows,
+                           Consumer<? super TableDiffResult> sink) {
+        run(tableDiffer::diffSorted, newRows, oldRows, sink);
+    }
+
+    /**
+     * Like {@link #diffSorted}, but sorts the rows first (see {@link TableDiffer#diffUnsorted}).
+     * Sorting starts while the rows are still being read
+     */
+    public void diffUnsorted(java.util.Iterator<TableRow> newRows,
+                             java.util.Iterator<TableRow> oldRows,
+                             Consumer<? super TableDiffResult> sink) {
+        run(tableDiffer::diffUnsorted, newRows, oldRows, sink);
+    }
+
+    private void run(BiFunction<java.util.Iterator<TableRow>, java.util.Iterator<TableRow>, Iterator<TableDiffResult>> diff,
+                     java.util.Iterator<TableRow> newRows,
+                     java.util.Iterator<TableRow> oldRows,
+                     Consumer<? super TableDiffResult> sink) {
+        Stages stages = new Stages(threadFactory != null ? threadFactory : PipelineThreads.factory());
+        BatchQueue<TableRow> newQueue = new BatchQueue<>(stages);
+        BatchQueue<TableRow> oldQueue = new BatchQueue<>(stages);
+        BatchQueue<TableDiffResult> resultQueue = new BatchQueue<>(stages);
+
+        stages.start(() -> newQueue.fill(newRows));
+        stages.start(() -> oldQueue.fill(oldRows));
+        stages.start(() -> {
+            Iterator<TableDiffResult> results = diff.apply(newQueue.iterator(), oldQueue.iterator());
+            try {
+                resultQueue.fill(results);
+            } finally {
+                // releases e.g. spill files of sorted rows if a stage failed before all results were read
+                if (results instanceof CloseableIterator) {
+                    ((CloseableIterator<TableDiffResult>) results).close();
+                }
+            }
+        });
+        try {
+            resultQueue.iterator().forEach(sink);
+        } catch (RuntimeException | Error e) {
+            stages.fail(e);
+        }
+        stages.await();
+    }
+
+    /**
+     * The threads of a single run. The first failure of any stage stops all other stages
+     */
+    private static final class Stages {
+        private final ThreadFactory threadFactory;
+        private final java.util.List<Thread> threads = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Stages(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+        }
+
+        void start(Runnable stage) {
+            Thread thread = threadFactory.newThread(() -> {
+                try {
+                    stage.run();
+                } catch (RuntimeException | Error e) {
+                    fail(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        void fail(Throwable cause) {
+            failure.compareAndSet(null, cause);
+        }
+
+        void checkNotFailed() {
+            if (failure.get() != null) {
+                throw new CancellationException("Stopped because another stage of the diff pipeline failed");
+            }
+        }
+
+        /**
+         * Waits for all stages to stop
+         *
+         * @throws RuntimeException the first failure of any stage
+         */
+        void await() {
+            boolean interrupted = false;
+            for (Thread thread : threads) {
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                        fail(new IllegalStateException("Interrupted while waiting for the diff pipeline", e));
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            Throwable cause = failure.get();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+        }
+    }
+
+    /**
+     * Bounded queue of batches between two stages. Blocked stages check periodically whether another stage failed
+     */
+    private final class BatchQueue<T> {
+        private final BlockingQueue<java.util.List<T>> batches = new ArrayBlockingQueue<>(queueCapacity);
+        private final Stages stages;
+
+        private BatchQueue(Stages stages) {
+            this.stages = stages;
+        }
+
+        void fill(java.util.Iterator<? extends T> source) {
+            java.util.List<T> batch = new ArrayList<>(batchSize);
+            while (source.hasNext()) {
+                batch.add(source.next());
+                if (batch.size() == batchSize) {
+                    put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                put(batch);
+            }
+            put(endOfStream());
+        }
+
+        Iterator<T> iterator() {
+            return Iterator.continually(this::take)
+                    .takeWhile(batch -> batch != END_OF_STREAM)
+                    .flatMap(batch -> batch);
+        }
+
+        private void put(java.util.List<T> batch) {
+            try {
+                while (!batches.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    stages.checkNotFailed();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while passing a batch to the next stage", e);
+            }
+        }
+
+        private java.util.List<T> take() {
+            try {
+                java.util.List<T> batch;
+                while ((batch = batches.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    stages.checkNotFailed();
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a batch of the previous stage", e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private java.util.List<T> endOfStream() {
+            return (java.util.List<T>) (java.util.List<?>) END_OF_STREAM;
+        }
+    }
+}
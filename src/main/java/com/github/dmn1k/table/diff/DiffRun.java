@@ -0,0 +1,166 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Iterator;
+import io.vavr.collection.Map;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Measures a single diff for a {@link DiffMetricsListener}.
+ * If the listener is {@link DiffMetricsListener#NONE} all methods only delegate without measuring anything
+ */
+final class DiffRun {
+    private static final DiffRun DISABLED = new DiffRun(DiffMetricsListener.NONE, 0);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final DiffMetricsListener listener;
+    private final long startNanos;
+    private final long threadId;
+    private final long startAllocatedBytes;
+    private final long[] phaseNanos = new long[DiffPhase.values().length];
+    private final long[] counts = new long[DiffType.values().length];
+    private long rowCount;
+    private boolean completed;
+
+    private DiffRun(DiffMetricsListener listener, long startNanos) {
+        this.listener = listener;
+        this.startNanos = startNanos;
+        this.threadId = Thread.currentThread().getId();
+        this.startAllocatedBytes = listener == DiffMetricsListener.NONE ? -1 : allocatedBytes(threadId);
+    }
+
+    static DiffRun start(DiffMetricsListener listener) {
+        return listener == DiffMetricsListener.NONE ? DISABLED : new DiffRun(listener, System.nanoTime());
+    }
+
+    boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    <T> T time(DiffPhase phase, Supplier<T> step) {
+        if (!isEnabled()) {
+            return step.get();
+        }
+        long start = System.nanoTime();
+        T result = step.get();
+        recordPhase(phase, System.nanoTime() - start);
+        return result;
+    }
+
+    void run(DiffPhase phase, Runnable step) {
+        time(phase, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    void addRows(long count) {
+        if (!isEnabled()) {
+            return;
+        }
+        rowCount += count;
+    }
+
+    /**
+     * Counts results which haven't been created, e.g. when only summarizing a diff
+     */
+    void addResults(DiffType diffType, long count) {
+        if (!isEnabled()) {
+            return;
+        }
+        counts[diffType.ordinal()] += count;
+    }
+
+    /**
+     * @return sink or, if enabled, a sink which counts the results before passing them to sink
+     */
+    Consumer<? super TableDiffResult> counting(Consumer<? super TableDiffResult> sink) {
+        if (!isEnabled()) {
+            return sink;
+        }
+        return result -> {
+            counts[result.getDiffType().ordinal()]++;
+            sink.accept(result);
+        };
+    }
+
+    /**
+     * @return rows or, if enabled, an iterator which counts the rows
+     */
+    java.util.Iterator<TableRow> countingRows(java.util.Iterator<TableRow> rows) {
+        if (!isEnabled()) {
+            return rows;
+        }
+        return Iterator.ofAll(rows).peek(row -> rowCount++);
+    }
+
+    /**
+     * @return results or, if enabled, an iterator which counts the results and completes this run when exhausted
+     */
+    Iterator<TableDiffResult> counting(Iterator<TableDiffResult> results) {
+        if (!isEnabled()) {
+            return results;
+        }
+        return new Iterator<TableDiffResult>() {
+            @Override
+            public boolean hasNext() {
+                boolean hasNext = results.hasNext();
+                if (!hasNext) {
+                    complete();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public TableDiffResult next() {
+                TableDiffResult result = results.next();
+                counts[result.getDiffType().ordinal()]++;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Reports the metrics of the whole diff. Only the first call has an effect
+     */
+    void complete() {
+        if (!isEnabled() || completed) {
+            return;
+        }
+        completed = true;
+        long allocatedBytes = allocatedBytes(threadId);
+        listener.onDiffCompleted(new DiffMetrics(
+                toMap(DiffPhase.values(), phaseNanos),
+                toMap(DiffType.values(), counts),
+                rowCount,
+                System.nanoTime() - startNanos,
+                allocatedBytes < 0 || startAllocatedBytes < 0 ? -1 : allocatedBytes - startAllocatedBytes));
+    }
+
+    private void recordPhase(DiffPhase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+        listener.onPhase(phase, nanos);
+    }
+
+    private static <K extends Enum<K>> Map<K, Long> toMap(K[] keys, long[] values) {
+        Map<K, Long> map = HashMap.empty();
+        for (K key : keys) {
+            map = map.put(key, values[key.ordinal()]);
+        }
+        return map;
+    }
+
+    private static long allocatedBytes(long threadId) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import lombok.Value;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Aggregated statistics of a diff: the number of rows per diff-type, the number of changed rows per column
+ * and optionally a few sample primary keys per diff-type.
+ */
+@Value
+public class DiffSummary {
+    private Map<DiffType, Long> counts;
+    /**
+     * Number of changed rows in which a column has changed, per column
+     */
+    private Map<TableHeader, Long> changedColumnCounts;
+    /**
+     * The first keys (in result order, i.e. the lowest keys) per diff-type
+     */
+    private Map<DiffType, List<PrimaryKey>> sampleKeys;
+    private int sampleSize;
+
+    /**
+     * @param sampleSize max number of sample keys to keep per diff-type
+     * @return a new collector which summarizes all results passed to it
+     */
+    public static Collector collector(int sampleSize) {
+        return new Collector(sampleSize);
+    }
+
+    public long getCount(DiffType diffType) {
+        return counts.get(diffType).getOrElse(0L);
+    }
+
+    public long getTotalCount() {
+        return counts.values().sum().longValue();
+    }
+
+    public List<PrimaryKey> getSampleKeys(DiffType diffType) {
+        return sampleKeys.get(diffType).getOrElse(List.empty());
+    }
+
+    /**
+     * Combines the summaries of disjoint parts of a diff, e.g. of the shards of a {@link ShardSpec}.
+     * Counts are added up, the sample keys are the lowest keys of both summaries
+     *
+     * @param other summary of another part of the diff
+     * @return a summary of both parts, keeping the larger sample size
+     */
+    public DiffSummary merge(DiffSummary other) {
+        int mergedSampleSize = Math.max(sampleSize, other.sampleSize);
+        return new DiffSummary(
+                counts.merge(other.counts, Long::sum),
+                changedColumnCounts.merge(other.changedColumnCounts, Long::sum),
+                sampleKeys.merge(other.sampleKeys, (keys, otherKeys) ->
+                        keys.appendAll(otherKeys).sorted().take(mergedSampleSize)),
+                mergedSampleSize);
+    }
+
+    /**
+     * Summarizes diff-results in a single pass. Memory is constant per counter and sample key
+     */
+    public static final class Collector implements Consumer<TableDiffResult> {
+        private final int sampleSize;
+        private final long[] counts = new long[DiffType.values().length];
+        private final java.util.Map<TableHeader, long[]> changedColumnCounts = new java.util.LinkedHashMap<>();
+        /**
+         * The lowest keys seen so far per diff-type, the highest of them at the head
+         */
+        private final java.util.Map<DiffType, PriorityQueue<PrimaryKey>> sampleKeys = new java.util.EnumMap<>(DiffType.class);
+
+        private Collector(int sampleSize) {
+            if (sampleSize < 0) {
+                throw new IllegalArgumentException("Sample size must not be negative but was " + sampleSize);
+            }
+            this.sampleSize = sampleSize;
+        }
+
+        @Override
+        public void accept(TableDiffResult result) {
+            count(result.getDiffType(), result.getPrimaryKey());
+            if (result.getDiffType() == DiffType.Changed) {
+                result.getChangedHeaders().forEach(header -> countChangedColumn(header, 1));
+            }
+        }
+
+        /**
+         * Counts a result without creating it. Keys may be passed in any order, the lowest ones are kept as samples
+         *
+         * @param diffType   type of the result
+         * @param primaryKey key of the result
+         */
+        void count(DiffType diffType, PrimaryKey primaryKey) {
+            counts[diffType.ordinal()]++;
+            if (sampleSize > 0) {
+                PriorityQueue<PrimaryKey> samples = sampleKeys.computeIfAbsent(diffType,
+                        d -> new PriorityQueue<>(sampleSize, Comparator.reverseOrder()));
+                if (samples.size() < sampleSize) {
+                    samples.add(primaryKey);
+                } else if (primaryKey.compareTo(samples.peek()) < 0) {
+                    samples.poll();
+                    samples.add(primaryKey);
+                }
+            }
+        }
+
+        /**
+         * @param header column which has changed
+         * @param rows   number of changed rows in which it has changed
+         */
+        void countChangedColumn(TableHeader header, long rows) {
+            changedColumnCounts.computeIfAbsent(header, h -> new long[1])[0] += rows;
+        }
+
+        public DiffSummary toSummary() {
+            Map<DiffType, Long> countMap = HashMap.empty();
+            for (DiffType diffType : DiffType.values()) {
+                countMap = countMap.put(diffType, counts[diffType.ordinal()]);
+            }
+            return new DiffSummary(
+                    countMap,
+                    HashMap.ofAll(changedColumnCounts).mapValues(count -> count[0]),
+                    HashMap.ofAll(sampleKeys).mapValues(samples -> List.ofAll(samples).sorted()),
+                    sampleSize);
+        }
+    }
+}
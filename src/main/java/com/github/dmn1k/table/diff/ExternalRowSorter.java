@@ -0,0 +1,315 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts rows by primary key within a fixed memory budget.
+ * Rows are buffered until the budget is exhausted, then the buffer is sorted and spilled to a temporary file.
+ * The spilled runs are merged lazily afterwards, in several passes if there are more runs than can be read at once
+ * within the budget. If all rows fit into the budget nothing is written to disk.
+ * Temporary files are deleted as soon as they have been read completely or the sorted rows are closed.
+ */
+final class ExternalRowSorter {
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FAN_IN = 128;
+    private static final long ROW_OVERHEAD_BYTES = 64;
+    private static final long CELL_OVERHEAD_BYTES = 48;
+
+    private final long memoryBudget;
+    private final Option<Path> spillDirectory;
+    /**
+     * Max number of runs read at once, each with its own IO buffer
+     */
+    private final int fanIn;
+
+    ExternalRowSorter(long memoryBudget, Option<Path> spillDirectory) {
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / IO_BUFFER_SIZE));
+    }
+
+    /**
+     * @param rows rows in arbitrary order
+     * @return a lazy iterator over the same rows sorted by primary key.
+     * Rows with the same primary key keep their original order. Has to be read completely or closed
+     * to delete its temporary files
+     */
+    CloseableIterator<TableRow> sort(java.util.Iterator<TableRow> rows) {
+        java.util.List<Tuple2<PrimaryKey, TableRow>> buffer = new ArrayList<>();
+        java.util.List<Run> runs = new ArrayList<>();
+        long bufferedBytes = 0;
+
+        try {
+            while (rows.hasNext()) {
+                TableRow row = rows.next();
+                buffer.add(Tuple.of(row.primaryKey(), row));
+                bufferedBytes += estimateSize(row);
+                if (bufferedBytes >= memoryBudget) {
+                    runs.add(spill(buffer));
+                    buffer.clear();
+                    bufferedBytes = 0;
+                }
+            }
+
+            if (runs.isEmpty()) {
+                buffer.sort(Comparator.comparing(Tuple2::_1));
+                return CloseableIterator.of(Iterator.ofAll(buffer).map(Tuple2::_2), () -> {
+                });
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(spill(buffer));
+            }
+            while (runs.size() > fanIn) {
+                runs = mergePass(runs);
+            }
+            return new MergingIterator(runs);
+        } catch (RuntimeException | Error e) {
+            runs.forEach(Run::delete);
+            throw e;
+        }
+    }
+
+    private Run spill(java.util.List<Tuple2<PrimaryKey, TableRow>> buffer) {
+        buffer.sort(Comparator.comparing(Tuple2::_1));
+        return write(Iterator.ofAll(buffer).map(Tuple2::_2));
+    }
+
+    /**
+     * Merges groups of fanIn runs into one run each
+     */
+    private java.util.List<Run> mergePass(java.util.List<Run> runs) {
+        java.util.List<Run> merged = new ArrayList<>();
+        for (int start = 0; start < runs.size(); start += fanIn) {
+            java.util.List<Run> group = runs.subList(start, Math.min(runs.size(), start + fanIn));
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+            try (MergingIterator groupRows = new MergingIterator(new ArrayList<>(group))) {
+                merged.add(write(groupRows));
+            } catch (RuntimeException | Error e) {
+                runs.subList(start, runs.size()).forEach(Run::delete);
+                merged.forEach(Run::delete);
+                throw e;
+            }
+        }
+        return merged;
+    }
+
+    private Run write(java.util.Iterator<TableRow> sortedRows) {
+        Path file = createTempFile(spillDirectory.getOrNull());
+        java.util.List<List<TableHeader>> headers = new ArrayList<>();
+        int rowCount = 0;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_SIZE))) {
+            List<TableHeader> lastHeaders = null;
+            int headersIndex = -1;
+            while (sortedRows.hasNext()) {
+                TableRow row = sortedRows.next();
+                // rows usually share the same header list, so it is only looked up when it changes
+                if (row.headers() != lastHeaders) {
+                    lastHeaders = row.headers();
+                    headersIndex = headers.indexOf(lastHeaders);
+                    if (headersIndex < 0) {
+                        headersIndex = headers.size();
+                        headers.add(lastHeaders);
+                    }
+                }
+                out.writeInt(headersIndex);
+                RowCodec.write(out, row);
+                rowCount++;
+            }
+        } catch (IOException e) {
+            deleteFile(file);
+            throw new UncheckedIOException("Could not spill rows to disk", e);
+        }
+        return new Run(file, rowCount, headers);
+    }
+
+    private static Path createTempFile(Path directory) {
+        try {
+            return directory == null
+                    ? Files.createTempFile("table-diff-", ".run")
+                    : Files.createTempFile(directory, "table-diff-", ".run");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create spill file", e);
+        }
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete spill file", e);
+        }
+    }
+
+    private static long estimateSize(TableRow row) {
+        long size = ROW_OVERHEAD_BYTES;
+        for (int column = 0; column < row.size(); column++) {
+            String value = row.getValue(column);
+            size += CELL_OVERHEAD_BYTES + (value == null ? 0 : 2L * value.length());
+        }
+        return size;
+    }
+
+    private static final class Run {
+        private final Path file;
+        private final int rowCount;
+        /**
+         * Distinct headers of the rows of the run. Each row is stored with the index of its headers
+         */
+        private final java.util.List<List<TableHeader>> headers;
+
+        Run(Path file, int rowCount, java.util.List<List<TableHeader>> headers) {
+            this.file = file;
+            this.rowCount = rowCount;
+            this.headers = headers;
+        }
+
+        void delete() {
+            deleteFile(file);
+        }
+    }
+
+    /**
+     * Sequentially reads one spilled run, peeking one row ahead
+     */
+    private static final class RunReader {
+        private final Run run;
+        private final int order;
+        private final DataInputStream in;
+        private int remaining;
+        private TableRow current;
+        private PrimaryKey currentKey;
+
+        RunReader(Run run, int order) throws IOException {
+            this.run = run;
+            this.order = order;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file), IO_BUFFER_SIZE));
+            this.remaining = run.rowCount;
+        }
+
+        /**
+         * @return false (and releases the run) if there are no more rows
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                close();
+                return false;
+            }
+            remaining--;
+            current = RowCodec.read(in, run.headers.get(in.readInt()));
+            currentKey = current.primaryKey();
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+            Files.deleteIfExists(run.file);
+        }
+    }
+
+    /**
+     * k-way merge of spilled runs. Ties are broken by run order so the sort stays stable
+     */
+    private static final class MergingIterator implements CloseableIterator<TableRow> {
+        private final PriorityQueue<RunReader> readers = new PriorityQueue<>(
+                Comparator.<RunReader, PrimaryKey>comparing(r -> r.currentKey).thenComparingInt(r -> r.order));
+        /**
+         * Runs which have not been opened yet, deleted on close
+         */
+        private final java.util.List<Run> unopenedRuns;
+
+        MergingIterator(java.util.List<Run> runs) {
+            this.unopenedRuns = runs;
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    RunReader reader = new RunReader(runs.get(i), i);
+                    try {
+                        if (reader.advance()) {
+                            readers.add(reader);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // the reader isn't part of readers yet, so it is closed and its run deleted here
+                        try {
+                            reader.close();
+                        } catch (IOException closeFailure) {
+                            e.addSuppressed(closeFailure);
+                        }
+                        throw e;
+                    }
+                    unopenedRuns.set(i, null);
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Could not read spilled rows", e);
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !readers.isEmpty();
+        }
+
+        @Override
+        public TableRow next() {
+            RunReader reader = readers.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            TableRow row = reader.current;
+            try {
+                if (reader.advance()) {
+                    readers.add(reader);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read spilled rows", e);
+            }
+            return row;
+        }
+
+        /**
+         * Closes all open runs and deletes the files of all runs which haven't been read completely
+         */
+        @Override
+        public void close() {
+            UncheckedIOException failure = null;
+            for (RunReader reader = readers.poll(); reader != null; reader = readers.poll()) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    failure = new UncheckedIOException("Could not delete spill file", e);
+                }
+            }
+            for (Run run : unopenedRuns) {
+                if (run != null) {
+                    run.delete();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.dmn1k.table.diff;
+
+/**
+ * 64-bit hashes used to fingerprint the content of rows.
+ * A row fingerprint is the sum of the fingerprints of its non-missing cells. It therefore does not depend on
+ * the order of the columns, so it stays valid when a table is normalized.
+ */
+final class Fingerprints {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    private Fingerprints() {
+        // static class
+    }
+
+    /**
+     * @param value any string
+     * @return a 64-bit FNV-1a hash of the string
+     */
+    static long hash(String value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * @param headerHash hash of the header name of the cell
+     * @param valueHash  hash of the value of the cell
+     * @return fingerprint of a single non-missing cell
+     */
+    static long cell(long headerHash, long valueHash) {
+        return mix(headerHash * 31 + valueHash);
+    }
+
+    /**
+     * @param key a primary key
+     * @return a 64-bit hash of the key, which unlike {@link PrimaryKey#hashCode()} rarely collides for large tables
+     */
+    static long key(PrimaryKey key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (String value : key.getValues()) {
+            hash = hash * 31 + hash(value);
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer of SplitMix64, spreads all input bits over the result
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.HashSet;
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import io.vavr.collection.Set;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Reads JDBC {@link ResultSet}s into {@link Table}s or streams them as rows.
+ * Columns are named by their label; SQL NULLs become cells with a null value.
+ * Rows are fetched and stored in batches of the configured fetch size.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class JdbcTableSource {
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final int fetchSize;
+    private final Set<String> primaryKeys;
+
+    public static JdbcTableSource create() {
+        return new JdbcTableSource(DEFAULT_FETCH_SIZE, HashSet.empty());
+    }
+
+    /**
+     * @param fetchSize number of rows fetched from the database and stored per batch. Defaults to 1000
+     * @return a new copy of this source with the new fetch size
+     */
+    public JdbcTableSource withFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1 but was " + fetchSize);
+        }
+        return new JdbcTableSource(fetchSize, primaryKeys);
+    }
+
+    /**
+     * @param columnLabels labels of the columns which form the primary key
+     * @return a new copy of this source which creates primary key-headers for the given columns
+     */
+    public JdbcTableSource withPrimaryKeys(String... columnLabels) {
+        return new JdbcTableSource(fetchSize, HashSet.of(columnLabels));
+    }
+
+    /**
+     * @param metaData meta data of a result set
+     * @return one header per column
+     * @throws SQLException if the meta data can't be read
+     * @throws IllegalArgumentException if a primary key column doesn't exist
+     */
+    public List<TableHeader> createHeaders(ResultSetMetaData metaData) throws SQLException {
+        String[] labels = new String[metaData.getColumnCount()];
+        for (int column = 0; column < labels.length; column++) {
+            labels[column] = metaData.getColumnLabel(column + 1);
+        }
+
+        List<String> names = List.of(labels);
+        Set<String> unknownPrimaryKeys = primaryKeys.removeAll(names);
+        if (!unknownPrimaryKeys.isEmpty()) {
+            throw new IllegalArgumentException("Primary key columns " + unknownPrimaryKeys.mkString(", ")
+                    + " don't exist. Columns are " + names.mkString(", "));
+        }
+        return names.map(name -> primaryKeys.contains(name)
+                ? TableHeader.createPrimaryKey(name)
+                : TableHeader.create(name));
+    }
+
+    /**
+     * Reads all remaining rows of the result set into a table
+     *
+     * @param resultSet the rows to read. Is not closed by this method
+     * @return a table with one header per column
+     * @throws SQLException if the rows can't be read
+     */
+    public Table read(ResultSet resultSet) throws SQLException {
+        resultSet.setFetchSize(fetchSize);
+        List<TableHeader> headers = createHeaders(resultSet.getMetaData());
+        TableBuilder builder = Table.builder(headers);
+        while (resultSet.next()) {
+            appendRow(resultSet, headers.size(), builder);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Lazily reads the rows of the result set in batches of the fetch size.
+     * Only the current batch is held in memory
+     *
+     * @param resultSet     the rows to read. Is not closed by this method
+     * @param targetHeaders the column layout of the returned rows (see {@link Table#normalize(List)})
+     * @return a lazy iterator over all remaining rows
+     * @throws SQLException if the result set can't be read. Errors while iterating are rethrown as
+     *                      IllegalStateException
+     */
+    public Iterator<TableRow> stream(ResultSet resultSet, List<TableHeader> targetHeaders) throws SQLException {
+        resultSet.setFetchSize(fetchSize);
+        List<TableHeader> headers = createHeaders(resultSet.getMetaData());
+        return Iterator.continually(() -> readBatch(resultSet, headers).normalize(targetHeaders))
+                .map(Table::getRows)
+                .takeWhile(rows -> !rows.isEmpty())
+                .flatMap(rows -> rows);
+    }
+
+    /**
+     * Incrementally diffs two result sets which are both ordered by primary key, e.g. by an ORDER BY clause.
+     * Only one batch of each side is held in memory at any time.
+     * <p>
+     * The ORDER BY of the database has to produce the order of {@link PrimaryKey}s, which compares the values as Java
+     * Strings ({@link String#compareTo}, i.e. by UTF-16 code units, case-sensitive, NULLs first). Many orders of
+     * databases differ: numeric key columns are ordered by number ("10" before "9" as Strings), and collations may
+     * ignore case or sort accents and NULLs differently. Order by the key columns cast to strings with a binary
+     * collation (e.g. {@code ORDER BY CAST(id AS VARCHAR) COLLATE "C"} in PostgreSQL) or diff the rows with
+     * {@link TableDiffer#diffUnsorted} instead
+     *
+     * @param tableDiffer defines how rows are compared
+     * @param newRows     rows of the new table, ordered by primary key as described above
+     * @param oldRows     rows of the old table, ordered by primary key as described above
+     * @return a lazy iterator of diff-results sorted by primary key
+     * @throws SQLException if the result sets can't be read
+     * @throws IllegalStateException while iterating, if the rows are not in the order of their primary keys
+     */
+    public Iterator<TableDiffResult> diffSorted(TableDiffer tableDiffer,
+                                                ResultSet newRows,
+                                                ResultSet oldRows) throws SQLException {
+        List<TableHeader> headerSuperset = tableDiffer.createHeaderSuperset(
+                Option.of(Table.create(createHeaders(newRows.getMetaData()))),
+                Option.of(Table.create(createHeaders(oldRows.getMetaData()))));
+        return tableDiffer.diffSorted(stream(newRows, headerSuperset), stream(oldRows, headerSuperset));
+    }
+
+    private Table readBatch(ResultSet resultSet, List<TableHeader> headers) {
+        TableBuilder builder = Table.builder(headers);
+        try {
+            for (int row = 0; row < fetchSize && resultSet.next(); row++) {
+                appendRow(resultSet, headers.size(), builder);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read rows", e);
+        }
+        return builder.build();
+    }
+
+    private static void appendRow(ResultSet resultSet, int columnCount, TableBuilder builder) throws SQLException {
+        for (int column = 1; column <= columnCount; column++) {
+            builder.appendCell(resultSet.getString(column));
+        }
+        builder.endRow();
+    }
+}
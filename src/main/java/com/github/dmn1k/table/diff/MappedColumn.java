@@ -0,0 +1,94 @@
+package com.github.dmn1k.table.diff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Column which reads its values from a memory mapped {@link TableFile}.
+ * Values are stored as UTF-8 bytes and only decoded when accessed. The bitmaps of missing cells and null values
+ * are read from the mapped file as well, one word per lookup
+ */
+final class MappedColumn extends Column {
+    private final MappedRegion region;
+    private final long missingPosition;
+    private final long nullsPosition;
+    private final long offsetsPosition;
+    private final long dataPosition;
+    private final int rowCount;
+
+    MappedColumn(MappedRegion region, long missingPosition, long nullsPosition, long offsetsPosition,
+                 long dataPosition, int rowCount, boolean primaryKey) {
+        super(null, primaryKey);
+        this.rowCount = rowCount;
+        this.region = region;
+        this.missingPosition = missingPosition;
+        this.nullsPosition = nullsPosition;
+        this.offsetsPosition = offsetsPosition;
+        this.dataPosition = dataPosition;
+    }
+
+    @Override
+    boolean isMissing(int row) {
+        return isSet(missingPosition, row);
+    }
+
+    @Override
+    BitSet copyMissing() {
+        long[] words = new long[(rowCount + Long.SIZE - 1) / Long.SIZE];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = region.getLong(missingPosition + (long) word * Long.BYTES);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    @Override
+    String storedValue(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        return new String(region.getBytes(start(row), length(row)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Values of two mapped columns are compared byte by byte without decoding them
+     */
+    @Override
+    boolean hasEqualValue(int row, Column other, int otherRow) {
+        if (!(other instanceof MappedColumn)) {
+            return super.hasEqualValue(row, other, otherRow);
+        }
+        MappedColumn mappedOther = (MappedColumn) other;
+        boolean isNull = isNull(row);
+        if (isNull || mappedOther.isNull(otherRow)) {
+            return isNull == mappedOther.isNull(otherRow);
+        }
+        int length = length(row);
+        return length == mappedOther.length(otherRow)
+                && region.equalBytes(start(row), mappedOther.region, mappedOther.start(otherRow), length);
+    }
+
+    @Override
+    int size() {
+        return rowCount;
+    }
+
+    private boolean isNull(int row) {
+        return isSet(nullsPosition, row);
+    }
+
+    /**
+     * Bitmaps are stored in the word layout of {@link BitSet#toLongArray()}
+     */
+    private boolean isSet(long bitmapPosition, int row) {
+        return (region.getLong(bitmapPosition + (long) (row >>> 6) * Long.BYTES) & (1L << row)) != 0;
+    }
+
+    private long start(int row) {
+        return dataPosition + region.getLong(offsetsPosition + (long) row * Long.BYTES);
+    }
+
+    private int length(int row) {
+        long offsetPosition = offsetsPosition + (long) row * Long.BYTES;
+        return (int) (region.getLong(offsetPosition + Long.BYTES) - region.getLong(offsetPosition));
+    }
+}
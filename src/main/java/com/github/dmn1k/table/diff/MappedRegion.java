@@ -0,0 +1,81 @@
+package com.github.dmn1k.table.diff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only memory mapping of a whole file. Files larger than 2 GB are mapped in several chunks.
+ * Longs and ints must be aligned to their size, so they never span two chunks
+ */
+final class MappedRegion {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ByteBuffer[] chunks;
+
+    private MappedRegion(ByteBuffer[] chunks) {
+        this.chunks = chunks;
+    }
+
+    static MappedRegion map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer[] chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long position = (long) chunk << CHUNK_SHIFT;
+            chunks[chunk] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+        }
+        return new MappedRegion(chunks);
+    }
+
+    byte get(long position) {
+        return chunk(position).get(offset(position));
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    /**
+     * @param position position of the first byte
+     * @param length   number of bytes to copy
+     * @return a copy of the bytes
+     */
+    byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            ByteBuffer chunk = chunk(position + copied).duplicate();
+            chunk.position(offset(position + copied));
+            int count = Math.min(length - copied, chunk.remaining());
+            chunk.get(bytes, copied, count);
+            copied += count;
+        }
+        return bytes;
+    }
+
+    /**
+     * Compares two byte ranges without copying them
+     */
+    boolean equalBytes(long position, MappedRegion other, long otherPosition, long length) {
+        for (long i = 0; i < length; i++) {
+            if (get(position + i) != other.get(otherPosition + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer chunk(long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)];
+    }
+
+    private static int offset(long position) {
+        return (int) (position & CHUNK_MASK);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+
+/**
+ * A comparison strategy with {@link ColumnComparator}s for some columns.
+ * Non-missing cells of these columns are compared by their comparator, all other cells by the base strategy
+ */
+final class PerColumnComparisonStrategy implements ColumnComparisonStrategy {
+    private final ColumnComparisonStrategy baseStrategy;
+    private final Map<String, ColumnComparator> comparatorsByHeaderName;
+    /**
+     * Comparators of the most recently used headers. Rows of the same table share their header list
+     */
+    private volatile ResolvedComparators resolved;
+
+    PerColumnComparisonStrategy(ColumnComparisonStrategy baseStrategy,
+                                Map<String, ColumnComparator> comparatorsByHeaderName) {
+        this.baseStrategy = baseStrategy;
+        this.comparatorsByHeaderName = comparatorsByHeaderName;
+    }
+
+    ColumnComparisonStrategy getBaseStrategy() {
+        return baseStrategy;
+    }
+
+    @Override
+    public boolean isSame(TableCell newCell, TableCell oldCell) {
+        return baseStrategy.isSame(newCell, oldCell);
+    }
+
+    /**
+     * @param headers headers of a row
+     * @return the comparator of each column, null for columns without comparator
+     */
+    ColumnComparator[] comparatorsFor(List<TableHeader> headers) {
+        ResolvedComparators current = resolved;
+        if (current == null || current.headers != headers) {
+            current = new ResolvedComparators(headers, headers
+                    .map(header -> comparatorsByHeaderName.get(header.getValue()).getOrNull())
+                    .toJavaArray(ColumnComparator.class));
+            resolved = current;
+        }
+        return current.comparators;
+    }
+
+    private static final class ResolvedComparators {
+        private final List<TableHeader> headers;
+        private final ColumnComparator[] comparators;
+
+        private ResolvedComparators(List<TableHeader> headers, ColumnComparator[] comparators) {
+            this.headers = headers;
+            this.comparators = comparators;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.dmn1k.table.diff;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads which run the stages of a {@link DiffPipeline}.
+ * This version creates daemon platform threads. On Java 21+ it is replaced by a version which creates
+ * virtual threads (see src/main/java21)
+ */
+final class PipelineThreads {
+    private static final AtomicInteger PIPELINE_COUNT = new AtomicInteger();
+
+    private PipelineThreads() {
+        // static class
+    }
+
+    static ThreadFactory factory() {
+        String prefix = "table-diff-pipeline-" + PIPELINE_COUNT.incrementAndGet() + "-";
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
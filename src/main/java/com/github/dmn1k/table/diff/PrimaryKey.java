@@ -0,0 +1,78 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+
+import java.util.Arrays;
+
+/**
+ * The primary key of a row: the values of all its primary key-cells.
+ * Unlike concatenated strings the boundaries between the values are preserved, so ("1", "23") and ("12", "3")
+ * are different keys. Keys are ordered by comparing their values one by one.
+ */
+public final class PrimaryKey implements Comparable<PrimaryKey> {
+    public static final PrimaryKey EMPTY = new PrimaryKey(new String[0]);
+
+    private final String[] values;
+    private final int hash;
+
+    private PrimaryKey(String[] values) {
+        this.values = values;
+        this.hash = Arrays.hashCode(values);
+    }
+
+    public static PrimaryKey of(String... values) {
+        return new PrimaryKey(values.clone());
+    }
+
+    /**
+     * Takes ownership of the given array without copying it
+     */
+    static PrimaryKey wrap(String[] values) {
+        return new PrimaryKey(values);
+    }
+
+    public List<String> getValues() {
+        return List.of(values);
+    }
+
+    @Override
+    public int compareTo(PrimaryKey other) {
+        int length = Math.min(values.length, other.values.length);
+        for (int i = 0; i < length; i++) {
+            int order = compare(values[i], other.values[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(values.length, other.values.length);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof PrimaryKey)) {
+            return false;
+        }
+        PrimaryKey that = (PrimaryKey) other;
+        return hash == that.hash && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PrimaryKey(values=" + Arrays.toString(values) + ")";
+    }
+
+    private static int compare(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+}
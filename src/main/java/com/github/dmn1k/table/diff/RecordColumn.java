@@ -0,0 +1,83 @@
+package com.github.dmn1k.table.diff;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.function.Function;
+
+/**
+ * Column holding the single cell of a row decoded by {@link RowCodec}. The value stays UTF-8 encoded in the record
+ * bytes, which are shared by all cells of the row, and is only decoded when accessed. Primary key values are
+ * decoded up front, as every row is matched by its key
+ */
+final class RecordColumn extends Column {
+    private static final BitSet NOT_MISSING = new BitSet(1);
+    /**
+     * Shared by all missing cells of all decoded rows
+     */
+    static final Column MISSING = Column.of(TableCell.MISSING_CELL);
+
+    private final byte[] record;
+    private final int offset;
+    /**
+     * Length of the encoded value, -1 for null
+     */
+    private final int length;
+    private String value;
+
+    RecordColumn(byte[] record, int offset, int length, boolean primaryKey) {
+        super(NOT_MISSING, primaryKey);
+        this.record = record;
+        this.offset = offset;
+        this.length = length;
+        if (primaryKey) {
+            value = decode();
+        }
+    }
+
+    @Override
+    String storedValue(int row) {
+        String decoded = value;
+        if (decoded == null && length >= 0) {
+            decoded = decode();
+            value = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * Values of two record columns are compared byte by byte without decoding them
+     */
+    @Override
+    boolean hasEqualValue(int row, Column other, int otherRow) {
+        if (!(other instanceof RecordColumn)) {
+            return super.hasEqualValue(row, other, otherRow);
+        }
+        RecordColumn recordOther = (RecordColumn) other;
+        if (length != recordOther.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (record[offset + i] != recordOther.record[recordOther.offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The column only holds a single cell, so its value is parsed on every use instead of being cached
+     */
+    @Override
+    <T> T parsed(Object key, Function<Column, T> parser) {
+        return parser.apply(this);
+    }
+
+    @Override
+    int size() {
+        return 1;
+    }
+
+    private String decode() {
+        return length < 0 ? null : new String(record, offset, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of single rows, used to spill rows to temporary files
+ */
+final class RowCodec {
+    private static final int MISSING = 1;
+    private static final int PRIMARY_KEY = 2;
+    private static final int NULL_VALUE = 4;
+
+    private RowCodec() {
+        // static class
+    }
+
+    static void write(DataOutput out, TableRow row) throws IOException {
+        out.writeInt(row.size());
+        for (int column = 0; column < row.size(); column++) {
+            TableCell cell = row.getCell(column);
+            int flags = (cell.isMissing() ? MISSING : 0)
+                    | (cell.isPrimaryKey() ? PRIMARY_KEY : 0)
+                    | (cell.getValue() == null ? NULL_VALUE : 0);
+            out.writeByte(flags);
+            if ((flags & (MISSING | NULL_VALUE)) == 0) {
+                byte[] value = cell.getValue().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        }
+    }
+
+    /**
+     * @return a row whose non-key values are only decoded when accessed (see {@link RecordColumn})
+     */
+    static TableRow read(DataInput in) throws IOException {
+        return read(in, List.empty());
+    }
+
+    /**
+     * @param headers headers of the row, must match the number of encoded cells
+     * @return a row which knows its headers
+     */
+    static TableRow read(DataInput in, List<TableHeader> headers) throws IOException {
+        return new TableRow(headers, readColumns(in), null, 0);
+    }
+
+    /**
+     * Reads the encoded values of all cells into one shared array without decoding them
+     *
+     * @return one {@link RecordColumn} per cell, {@link RecordColumn#MISSING} for missing cells
+     */
+    static Column[] readColumns(DataInput in) throws IOException {
+        int cellCount = in.readInt();
+        int[] flags = new int[cellCount];
+        int[] offsets = new int[cellCount];
+        int[] lengths = new int[cellCount];
+        byte[] record = new byte[64];
+        int recordLength = 0;
+        for (int column = 0; column < cellCount; column++) {
+            flags[column] = in.readByte();
+            lengths[column] = -1;
+            if ((flags[column] & (MISSING | NULL_VALUE)) == 0) {
+                int length = in.readInt();
+                if (recordLength + length > record.length) {
+                    record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + length));
+                }
+                in.readFully(record, recordLength, length);
+                offsets[column] = recordLength;
+                lengths[column] = length;
+                recordLength += length;
+            }
+        }
+
+        byte[] trimmed = recordLength == record.length ? record : Arrays.copyOf(record, recordLength);
+        Column[] columns = new Column[cellCount];
+        for (int column = 0; column < cellCount; column++) {
+            columns[column] = (flags[column] & MISSING) != 0
+                    ? RecordColumn.MISSING
+                    : new RecordColumn(trimmed, offsets[column], lengths[column], (flags[column] & PRIMARY_KEY) != 0);
+        }
+        return columns;
+    }
+}
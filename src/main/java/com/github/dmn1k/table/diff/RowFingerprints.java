@@ -0,0 +1,22 @@
+package com.github.dmn1k.table.diff;
+
+/**
+ * Content fingerprints of the rows of a table (see {@link Fingerprints}), either held in an array
+ * or read from a memory mapped {@link TableFile} when a row asks for its fingerprint
+ */
+@FunctionalInterface
+interface RowFingerprints {
+    /**
+     * @param row index of the row
+     * @return the fingerprint of the row
+     */
+    long get(int row);
+
+    /**
+     * @param fingerprints fingerprints indexed by row, not copied
+     * @return fingerprints backed by the given array
+     */
+    static RowFingerprints of(long[] fingerprints) {
+        return row -> fingerprints[row];
+    }
+}
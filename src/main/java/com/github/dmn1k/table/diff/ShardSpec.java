@@ -0,0 +1,114 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Splits the primary key space into shards, so the diff of two large tables can be distributed:
+ * every worker diffs only the rows of its shard from both tables (see {@link #select(Table, int)}) and
+ * {@link ShardedDiff} merges the per-shard results. All workers have to use an equal ShardSpec.
+ * Shards are either defined by key hashes or by ranges of keys.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ShardSpec {
+    @Getter
+    private final int shardCount;
+    /**
+     * Lower bounds of the shards 1..n in ascending order, null for hash shards
+     */
+    private final PrimaryKey[] splitKeys;
+
+    /**
+     * @param shardCount number of shards
+     * @return a spec which assigns keys to shards by a hash of their values. The hash is the same in every JVM
+     */
+    public static ShardSpec hash(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1 but was " + shardCount);
+        }
+        return new ShardSpec(shardCount, null);
+    }
+
+    /**
+     * Creates range shards: shard 0 holds all keys lower than the first split key, shard i holds all keys from split
+     * key i - 1 (inclusive) to split key i (exclusive) and the last shard all keys from the last split key
+     *
+     * @param splitKeys the lower bounds of the shards 1..n in ascending order (see {@link PrimaryKey#compareTo})
+     * @return a spec with one shard more than there are split keys
+     */
+    public static ShardSpec ranges(PrimaryKey... splitKeys) {
+        for (int i = 1; i < splitKeys.length; i++) {
+            if (splitKeys[i - 1].compareTo(splitKeys[i]) >= 0) {
+                throw new IllegalArgumentException("Split keys must be strictly ascending but " + splitKeys[i - 1]
+                        + " is followed by " + splitKeys[i]);
+            }
+        }
+        return new ShardSpec(splitKeys.length + 1, splitKeys.clone());
+    }
+
+    /**
+     * @param key a primary key
+     * @return the index of the shard the key belongs to, between 0 and shardCount - 1
+     */
+    public int shardOf(PrimaryKey key) {
+        if (splitKeys == null) {
+            return (int) Math.floorMod(Fingerprints.key(key), (long) shardCount);
+        }
+        int low = 0;
+        int high = splitKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (splitKeys[middle].compareTo(key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param table a whole table
+     * @param shard index of a shard
+     * @return a new table with the same headers which contains copies of the rows of the shard
+     */
+    public Table select(Table table, int shard) {
+        checkShard(shard);
+        int[] rowIndexes = new int[table.rowCount()];
+        int selected = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            if (shardOf(table.row(row).primaryKey()) == shard) {
+                rowIndexes[selected++] = row;
+            }
+        }
+        return table.select(Arrays.copyOf(rowIndexes, selected));
+    }
+
+    /**
+     * @param rows  rows of a whole table
+     * @param shard index of a shard
+     * @return a lazy iterator over the rows of the shard
+     */
+    public Iterator<TableRow> select(java.util.Iterator<TableRow> rows, int shard) {
+        checkShard(shard);
+        return Iterator.ofAll(rows).filter(row -> shardOf(row.primaryKey()) == shard);
+    }
+
+    /**
+     * @return the split keys of range shards, empty for hash shards
+     */
+    public List<PrimaryKey> getSplitKeys() {
+        return splitKeys == null ? List.empty() : List.of(splitKeys);
+    }
+
+    private void checkShard(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shardCount - 1) + " but was " + shard);
+        }
+    }
+}
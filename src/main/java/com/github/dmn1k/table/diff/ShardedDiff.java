@@ -0,0 +1,184 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * Coordinates a diff which is distributed over several workers by a {@link ShardSpec}.
+ * <p>
+ * Every worker diffs the rows of its shard, e.g.
+ * {@code tableDiffer.diff(spec.select(newTable, shard), spec.select(oldTable, shard))}, and passes its results to
+ * the coordinator, either directly (workers in the same JVM) or via {@link #write}/{@link #read} (workers in other
+ * JVMs). The coordinator merges the sorted per-shard results into one sorted result and the per-shard summaries
+ * into one summary.
+ */
+public final class ShardedDiff {
+    private static final int MAGIC = 0x54445231;
+    private static final int END = 0;
+    private static final int HEADERS = 1;
+    private static final int RESULT = 2;
+
+    private ShardedDiff() {
+        // static class
+    }
+
+    /**
+     * @param shardResults the results of every shard, each sorted by primary key
+     * @return a lazy iterator over the results of all shards, sorted by primary key
+     */
+    public static Iterator<TableDiffResult> merge(Iterable<? extends java.util.Iterator<TableDiffResult>> shardResults) {
+        return SortedMerge.merge(shardResults, Comparator.comparing(TableDiffResult::getPrimaryKey));
+    }
+
+    /**
+     * @param shardSummaries the summaries of every shard
+     * @return a summary of all shards (see {@link DiffSummary#merge(DiffSummary)})
+     */
+    public static DiffSummary mergeSummaries(Iterable<DiffSummary> shardSummaries) {
+        return List.ofAll(shardSummaries).reduceOption(DiffSummary::merge)
+                .getOrElse(() -> DiffSummary.collector(0).toSummary());
+    }
+
+    /**
+     * Encodes results in a compact binary format, e.g. to send them from a worker to the coordinator
+     *
+     * @param results the results to write
+     * @param out     receives the encoded results. Is not closed by this method
+     * @throws IOException if the results can't be written
+     */
+    public static void write(java.util.Iterator<TableDiffResult> results, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        List<TableHeader> headers = null;
+        while (results.hasNext()) {
+            TableDiffResult result = results.next();
+            List<TableHeader> resultHeaders = result.getNewRow().orElse(result.getOldRow())
+                    .map(TableRow::headers)
+                    .getOrElse(List.empty());
+            // all results of a diff usually share the same headers, so they are only written when they change
+            if (resultHeaders != headers) {
+                headers = resultHeaders;
+                writeHeaders(data, headers);
+            }
+            data.writeByte(RESULT);
+            data.writeByte(result.getDiffType().ordinal());
+            writeRow(data, result.getNewRow());
+            writeRow(data, result.getOldRow());
+            long[] changedColumns = result.getChangedColumns().toLongArray();
+            data.writeInt(changedColumns.length);
+            for (long word : changedColumns) {
+                data.writeLong(word);
+            }
+        }
+        data.writeByte(END);
+        data.flush();
+    }
+
+    /**
+     * @param in results encoded by {@link #write}. Is not closed by this method
+     * @return a lazy iterator over the decoded results
+     * @throws IOException if the input can't be read or is not in the expected format.
+     *                     Errors while iterating are rethrown as UncheckedIOException
+     */
+    public static Iterator<TableDiffResult> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an encoded diff-result stream");
+        }
+        return new ResultReader(data);
+    }
+
+    private static void writeHeaders(DataOutputStream out, List<TableHeader> headers) throws IOException {
+        out.writeByte(HEADERS);
+        out.writeInt(headers.size());
+        for (TableHeader header : headers) {
+            out.writeUTF(header.getValue());
+            out.writeBoolean(header.isPrimaryKey());
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, Option<TableRow> row) throws IOException {
+        out.writeBoolean(row.isDefined());
+        if (row.isDefined()) {
+            RowCodec.write(out, row.get());
+        }
+    }
+
+    private static final class ResultReader implements Iterator<TableDiffResult> {
+        private final DataInputStream in;
+        private List<TableHeader> headers = List.empty();
+        private TableDiffResult next;
+        private boolean ended;
+
+        private ResultReader(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                next = readNext();
+            }
+            return next != null;
+        }
+
+        @Override
+        public TableDiffResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TableDiffResult result = next;
+            next = null;
+            return result;
+        }
+
+        private TableDiffResult readNext() {
+            try {
+                int tag = in.readByte();
+                while (tag == HEADERS) {
+                    TableHeader[] readHeaders = new TableHeader[in.readInt()];
+                    for (int i = 0; i < readHeaders.length; i++) {
+                        String name = in.readUTF();
+                        readHeaders[i] = in.readBoolean() ? TableHeader.createPrimaryKey(name) : TableHeader.create(name);
+                    }
+                    headers = List.of(readHeaders);
+                    tag = in.readByte();
+                }
+                if (tag == END) {
+                    ended = true;
+                    return null;
+                }
+                if (tag != RESULT) {
+                    throw new IOException("Unexpected record type " + tag);
+                }
+                DiffType diffType = DiffType.values()[in.readByte()];
+                Option<TableRow> newRow = readRow();
+                Option<TableRow> oldRow = readRow();
+                long[] changedColumns = new long[in.readInt()];
+                for (int i = 0; i < changedColumns.length; i++) {
+                    changedColumns[i] = in.readLong();
+                }
+                return new TableDiffResult(newRow, oldRow, diffType, BitSet.valueOf(changedColumns));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read diff-results", e);
+            }
+        }
+
+        private Option<TableRow> readRow() throws IOException {
+            return in.readBoolean() ? Option.of(RowCodec.read(in, headers)) : Option.none();
+        }
+    }
+}
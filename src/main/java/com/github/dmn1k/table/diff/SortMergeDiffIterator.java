@@ -0,0 +1,114 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.control.Option;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Lazily merges two row iterators which are sorted by primary key into diff-results.
+ * Only the current row of each side is held in memory.
+ */
+final class SortMergeDiffIterator implements Iterator<TableDiffResult> {
+    private final SortedRows newRows;
+    private final SortedRows oldRows;
+    private final ColumnComparisonStrategy cellComparisonFn;
+    private final Set<DiffType> diffTypes;
+    private Option<TableDiffResult> next = Option.none();
+
+    SortMergeDiffIterator(java.util.Iterator<TableRow> newRows,
+                          java.util.Iterator<TableRow> oldRows,
+                          ColumnComparisonStrategy cellComparisonFn,
+                          Set<DiffType> diffTypes) {
+        this.newRows = new SortedRows(newRows, "new");
+        this.oldRows = new SortedRows(oldRows, "old");
+        this.cellComparisonFn = cellComparisonFn;
+        this.diffTypes = diffTypes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next.isEmpty() && (newRows.hasCurrent() || oldRows.hasCurrent())) {
+            next = mergeNext();
+        }
+        return next.isDefined();
+    }
+
+    @Override
+    public TableDiffResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TableDiffResult result = next.get();
+        next = Option.none();
+        return result;
+    }
+
+    /**
+     * Consumes the row with the lowest primary key (from one or both sides)
+     *
+     * @return its diff-result or none if its diff-type is not included
+     */
+    private Option<TableDiffResult> mergeNext() {
+        int order = !oldRows.hasCurrent() ? -1
+                : !newRows.hasCurrent() ? 1
+                : newRows.currentKey().compareTo(oldRows.currentKey());
+        Option<TableRow> newRow = order <= 0 ? Option.of(newRows.advance()) : Option.none();
+        Option<TableRow> oldRow = order >= 0 ? Option.of(oldRows.advance()) : Option.none();
+        return TableDiffResult.create(newRow, oldRow, cellComparisonFn, diffTypes);
+    }
+
+    /**
+     * Peeks one row ahead, verifies the sort order and skips rows with duplicate primary keys
+     * (the first row wins, as in {@link TableDiffer#diff(Option, Option)})
+     */
+    private static final class SortedRows {
+        private final java.util.Iterator<TableRow> rows;
+        private final String side;
+        private TableRow current;
+        private PrimaryKey currentKey;
+
+        SortedRows(java.util.Iterator<TableRow> rows, String side) {
+            this.rows = rows;
+            this.side = side;
+            fetch();
+        }
+
+        boolean hasCurrent() {
+            return current != null;
+        }
+
+        PrimaryKey currentKey() {
+            return currentKey;
+        }
+
+        TableRow advance() {
+            TableRow row = current;
+            fetch();
+            return row;
+        }
+
+        private void fetch() {
+            PrimaryKey previousKey = currentKey;
+            current = null;
+            while (rows.hasNext()) {
+                TableRow row = rows.next();
+                PrimaryKey key = row.primaryKey();
+                if (previousKey != null) {
+                    int order = key.compareTo(previousKey);
+                    if (order < 0) {
+                        throw new IllegalStateException("Rows of " + side + " table are not sorted by primary key: "
+                                + key + " follows " + previousKey);
+                    }
+                    if (order == 0) {
+                        continue;
+                    }
+                }
+                current = row;
+                currentKey = key;
+                return;
+            }
+        }
+    }
+}
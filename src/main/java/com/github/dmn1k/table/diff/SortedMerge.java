@@ -0,0 +1,55 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+import io.vavr.collection.Iterator;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Lazy k-way merge of iterators which are each sorted by the same comparator
+ */
+final class SortedMerge<T> implements Iterator<T> {
+    private final PriorityQueue<Tuple2<T, java.util.Iterator<? extends T>>> heads;
+
+    private SortedMerge(Iterable<? extends java.util.Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        this.heads = new PriorityQueue<>((a, b) -> comparator.compare(a._1, b._1));
+        for (java.util.Iterator<? extends T> source : sources) {
+            offerNext(source);
+        }
+    }
+
+    /**
+     * @param sources    iterators which are each sorted by comparator
+     * @param comparator defines the sort order
+     * @param <T>        element type
+     * @return a lazy iterator over all elements of all sources, sorted by comparator
+     */
+    static <T> Iterator<T> merge(Iterable<? extends java.util.Iterator<? extends T>> sources,
+                                 Comparator<? super T> comparator) {
+        return new SortedMerge<>(sources, comparator);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Tuple2<T, java.util.Iterator<? extends T>> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        offerNext(head._2);
+        return head._1;
+    }
+
+    private void offerNext(java.util.Iterator<? extends T> source) {
+        if (source.hasNext()) {
+            heads.add(Tuple.of(source.next(), source));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.dmn1k.table.diff;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * Column which stores one String per cell
+ */
+final class StringColumn extends Column {
+    @Getter(AccessLevel.PACKAGE)
+    private final String[] values;
+
+    StringColumn(String[] values, BitSet missing, boolean primaryKey) {
+        super(missing, primaryKey);
+        this.values = values;
+    }
+
+    @Override
+    String storedValue(int row) {
+        return values[row];
+    }
+
+    @Override
+    int size() {
+        return values.length;
+    }
+}
@@ -1,29 +1,45 @@
 package com.github.dmn1k.table.diff;
 
 
-import io.vavr.Function1;
-import io.vavr.Tuple;
 import io.vavr.collection.List;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 
-@ToString
-@Getter
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@ToString(of = {"headers", "rows"})
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class Table {
-    private List<TableHeader> headers;
-    private List<TableRow> rows;
+    @Getter
+    private final List<TableHeader> headers;
+    private final Column[] columns;
+    private final RowFingerprints fingerprints;
+    private final int rowCount;
+    @Getter(lazy = true)
+    private final List<TableRow> rows = List.range(0, rowCount).map(index -> new TableRow(headers, columns, fingerprints, index));
 
     public static Table create(List<TableHeader> headers) {
-        return new Table(headers, List.empty());
+        return builder(headers).build();
     }
 
     public static Table create(TableHeader... headers) {
         return create(List.of(headers));
     }
 
+    /**
+     * Creates a builder which efficiently collects many rows before sealing them into an immutable table
+     *
+     * @param headers The headers of the table to build
+     * @return a new builder
+     */
+    public static TableBuilder builder(List<TableHeader> headers) {
+        return new TableBuilder(headers);
+    }
+
+    public static TableBuilder builder(TableHeader... headers) {
+        return builder(List.of(headers));
+    }
+
     /**
      * Adds a row to the table.
      * Adjusts the row to the given headers (adds dummy-cells or removes cells if necessary)
@@ -32,7 +48,7 @@ public class Table {
      * @return a new copy of this table with the added row
      */
     public Table addRow(String... cells) {
-        return addRow(List.of(cells));
+        return toBuilder().addRow(cells).build();
     }
 
     /**
@@ -43,41 +59,70 @@ public class Table {
      * @return a new copy of this table with the added row
      */
     public Table addRow(List<String> cells) {
-        List<TableCell> tableCells = cells
-                .zipWith(headers, (cell, header) -> Tuple.of(cell, header.isPrimaryKey()))
-                .map(TableCell::create);
-
-        TableRow row = TableRow.create(adjustCellsToHeaderCount(tableCells));
-        return addRawRow(row);
+        return toBuilder().addRow(cells).build();
     }
 
     /**
-     * Reorders all columns according to targetHeaders and creates dummy columns if a header in targetHeaders is missing
+     * Reorders all columns according to targetHeaders and creates dummy columns if a header in targetHeaders is missing.
+     * Columns and row fingerprints are shared with this table instead of being copied
      * @param targetHeaders defines the structure of the resulting table
      * @return a normalized table according to the given structure
      */
     public Table normalize(List<TableHeader> targetHeaders) {
-        Function1<TableRow, TableRow> normalizeFn = row -> targetHeaders
-                .map(headers::indexOfOption) // index of target header in current headers
-                .map(row::getCellOrMissing) // cell with given index or MISSING_CELL
-                .foldLeft(TableRow.create(), TableRow::addCell);
+        if (headers.equals(targetHeaders)) {
+            return this;
+        }
+
+        Column missingColumn = Column.missing(rowCount);
+        Column[] normalizedColumns = targetHeaders
+                .map(headers::indexOfOption) // index of target header in current headers, computed once per table
+                .map(index -> index.map(i -> columns[i]).getOrElse(missingColumn))
+                .toJavaArray(Column.class);
+
+        return new Table(targetHeaders, normalizedColumns, fingerprints, rowCount);
+    }
+
+    /**
+     * @param index index of a row
+     * @return a view of the row, without creating views of all other rows
+     */
+    TableRow row(int index) {
+        return new TableRow(headers, columns, fingerprints, index);
+    }
+
+    /**
+     * @param rowIndexes indexes of the rows to keep, in order
+     * @return a new table with copies of the given rows
+     */
+    Table select(int[] rowIndexes) {
+        Column[] selectedColumns = new Column[columns.length];
+        for (int column = 0; column < columns.length; column++) {
+            selectedColumns[column] = columns[column].select(rowIndexes);
+        }
+        long[] selectedFingerprints = null;
+        if (fingerprints != null) {
+            selectedFingerprints = new long[rowIndexes.length];
+            for (int i = 0; i < rowIndexes.length; i++) {
+                selectedFingerprints[i] = fingerprints.get(rowIndexes[i]);
+            }
+        }
+        return new Table(headers, selectedColumns,
+                selectedFingerprints == null ? null : RowFingerprints.of(selectedFingerprints), rowIndexes.length);
+    }
 
-        return rows.map(normalizeFn)
-                .foldLeft(Table.create(targetHeaders), Table::addRawRow);
+    Column getColumn(int index) {
+        return columns[index];
     }
 
-    private List<TableCell> adjustCellsToHeaderCount(List<TableCell> tableCells) {
-        List<TableCell> shrinkedCells = tableCells.dropRight(tableCells.size() - headers.size());
-        return shrinkedCells.padTo(headers.size(), TableCell.MISSING_CELL);
+    int rowCount() {
+        return rowCount;
     }
 
     /**
-     * Adds row without any adjustments like adding/dropping cells to adjust cell-count to header-count
-     * @param row the row to add
-     * @return an updated table
+     * @return a builder containing a copy of all cells, with room for one more row
      */
-    private Table addRawRow(TableRow row) {
-        return new Table(headers, rows.append(row));
+    private TableBuilder toBuilder() {
+        return new TableBuilder(headers, columns, fingerprints, rowCount);
     }
 
 }
@@ -0,0 +1,236 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Mutable builder for {@link Table}s.
+ * Cell values are appended to one growable array per column (amortized O(1) per row) which are handed over
+ * to the resulting table without copying. A builder can therefore only be built once.
+ */
+public class TableBuilder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<TableHeader> headers;
+    private final boolean[] primaryKeyFlags;
+    private final long[] headerHashes;
+    private final String[][] values;
+    /**
+     * Codes of dictionary encoded columns, null for columns storing Strings
+     */
+    private final int[][] codes;
+    private final ValueDictionary[] dictionaries;
+    private final BitSet[] missing;
+    private long[] fingerprints;
+    private int rowCount;
+    private int currentColumn;
+    private long currentFingerprint;
+    private boolean built;
+
+    TableBuilder(List<TableHeader> headers) {
+        this(headers, new Column[0], RowFingerprints.of(new long[0]), 0);
+    }
+
+    /**
+     * Creates a builder containing a copy of the given columns, with room for one more row
+     */
+    TableBuilder(List<TableHeader> headers, Column[] columns, RowFingerprints fingerprints, int rowCount) {
+        this.headers = headers;
+        this.primaryKeyFlags = new boolean[headers.size()];
+        this.headerHashes = new long[headers.size()];
+        int index = 0;
+        for (TableHeader header : headers) {
+            primaryKeyFlags[index] = header.isPrimaryKey();
+            headerHashes[index] = Fingerprints.hash(header.getValue());
+            index++;
+        }
+        this.values = new String[headers.size()][];
+        this.codes = new int[headers.size()][];
+        this.dictionaries = new ValueDictionary[headers.size()];
+        this.missing = new BitSet[headers.size()];
+        for (int column = 0; column < values.length; column++) {
+            if (column >= columns.length) {
+                values[column] = new String[0];
+                missing[column] = new BitSet();
+            } else if (columns[column] instanceof DictionaryColumn) {
+                DictionaryColumn dictionaryColumn = (DictionaryColumn) columns[column];
+                codes[column] = Arrays.copyOf(dictionaryColumn.getCodes(), rowCount + 1);
+                dictionaries[column] = dictionaryColumn.getDictionary();
+                missing[column] = columns[column].copyMissing();
+            } else if (columns[column] instanceof StringColumn) {
+                values[column] = Arrays.copyOf(((StringColumn) columns[column]).getValues(), rowCount + 1);
+                missing[column] = columns[column].copyMissing();
+            } else {
+                values[column] = copyValues(columns[column], rowCount);
+                missing[column] = columns[column].copyMissing();
+            }
+        }
+        this.fingerprints = new long[rowCount + 1];
+        for (int row = 0; row < rowCount; row++) {
+            this.fingerprints[row] = fingerprints.get(row);
+        }
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Decodes the values of columns of other types (e.g. mapped from a {@link TableFile}) into a new array
+     */
+    private static String[] copyValues(Column column, int rowCount) {
+        String[] copy = new String[rowCount + 1];
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isMissing(row)) {
+                copy[row] = column.storedValue(row);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Stores the values of the given columns as codes of the dictionary instead of one String per cell.
+     * Values of columns sharing a dictionary are compared as ints. Pays off for columns with few distinct values
+     *
+     * @param dictionary  dictionary to encode the values with. Use the same dictionary for tables which are compared
+     * @param headerNames names of the columns to encode
+     * @return this builder
+     * @throws IllegalArgumentException if a column doesn't exist
+     * @throws IllegalStateException if rows have already been added
+     */
+    public TableBuilder withDictionary(ValueDictionary dictionary, String... headerNames) {
+        ensureNotBuilt();
+        if (rowCount > 0 || currentColumn > 0) {
+            throw new IllegalStateException("Dictionaries have to be set before adding rows");
+        }
+        List<String> names = headers.map(TableHeader::getValue);
+        for (String headerName : headerNames) {
+            int column = names.indexOf(headerName);
+            if (column < 0) {
+                throw new IllegalArgumentException("Column " + headerName + " doesn't exist. Columns are "
+                        + names.mkString(", "));
+            }
+            values[column] = null;
+            codes[column] = new int[0];
+            dictionaries[column] = dictionary;
+        }
+        return this;
+    }
+
+    /**
+     * Adds a row to the table.
+     * Adjusts the row to the given headers (adds dummy-cells or removes cells if necessary)
+     *
+     * @param cells The cells of the row to add
+     * @return this builder
+     */
+    public TableBuilder addRow(String... cells) {
+        for (String cell : cells) {
+            appendCell(cell);
+        }
+        return endRow();
+    }
+
+    /**
+     * Adds a row to the table.
+     * Adjusts the row to the given headers (adds dummy-cells or removes cells if necessary)
+     *
+     * @param cells The cells of the row to add
+     * @return this builder
+     */
+    public TableBuilder addRow(List<String> cells) {
+        return addRow(cells.toJavaArray(String.class));
+    }
+
+    /**
+     * Adds all rows to the table.
+     * Adjusts each row to the given headers (adds dummy-cells or removes cells if necessary)
+     *
+     * @param rows The rows to add
+     * @return this builder
+     */
+    public TableBuilder addRows(Iterable<String[]> rows) {
+        rows.forEach(this::addRow);
+        return this;
+    }
+
+    /**
+     * Seals this builder. The collected columns are handed over to the table without copying,
+     * so adding further rows afterwards is not allowed.
+     *
+     * @return an immutable table containing all added rows
+     */
+    public Table build() {
+        ensureNotBuilt();
+        built = true;
+        Column[] columns = new Column[values.length];
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = codes[column] == null
+                    ? new StringColumn(values[column], missing[column], primaryKeyFlags[column])
+                    : new DictionaryColumn(codes[column], dictionaries[column], missing[column], primaryKeyFlags[column]);
+        }
+        return new Table(headers, columns, RowFingerprints.of(fingerprints), rowCount);
+    }
+
+    /**
+     * Appends a cell to the current row. Cells exceeding the header count are dropped.
+     * Allows readers to fill the table without creating an intermediate array per row
+     *
+     * @param value value of the cell
+     * @return this builder
+     */
+    TableBuilder appendCell(String value) {
+        if (currentColumn == 0) {
+            ensureRoomForOneMoreRow();
+        }
+        if (currentColumn < values.length && codes[currentColumn] != null) {
+            int code = dictionaries[currentColumn].encode(value);
+            codes[currentColumn][rowCount] = code;
+            currentFingerprint += Fingerprints.cell(headerHashes[currentColumn], dictionaries[currentColumn].hash(code));
+        } else if (currentColumn < values.length) {
+            values[currentColumn][rowCount] = value;
+            currentFingerprint += Fingerprints.cell(headerHashes[currentColumn], Fingerprints.hash(value));
+        }
+        currentColumn++;
+        return this;
+    }
+
+    /**
+     * Completes the current row, adding dummy-cells if it has less cells than there are headers
+     *
+     * @return this builder
+     */
+    TableBuilder endRow() {
+        if (currentColumn == 0) {
+            ensureRoomForOneMoreRow();
+        }
+        for (int column = currentColumn; column < values.length; column++) {
+            missing[column].set(rowCount);
+        }
+        fingerprints[rowCount] = currentFingerprint;
+        rowCount++;
+        currentColumn = 0;
+        currentFingerprint = 0;
+        return this;
+    }
+
+    private void ensureRoomForOneMoreRow() {
+        ensureNotBuilt();
+        int capacity = Math.max(INITIAL_CAPACITY, rowCount * 2);
+        for (int column = 0; column < values.length; column++) {
+            if (codes[column] != null && rowCount == codes[column].length) {
+                codes[column] = Arrays.copyOf(codes[column], capacity);
+            } else if (codes[column] == null && rowCount == values[column].length) {
+                values[column] = Arrays.copyOf(values[column], capacity);
+            }
+        }
+        if (rowCount == fingerprints.length) {
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+        }
+    }
+
+    private void ensureNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("Table has already been built from this builder");
+        }
+    }
+}
@@ -14,6 +14,10 @@ public class TableCell {
     private boolean isMissing;
 
     public static TableCell create(Tuple2<String, Boolean> valuePrimKeyTuple){
-        return new TableCell(valuePrimKeyTuple._1, valuePrimKeyTuple._2, false);
+        return create(valuePrimKeyTuple._1, valuePrimKeyTuple._2);
+    }
+
+    public static TableCell create(String value, boolean isPrimaryKey){
+        return new TableCell(value, isPrimaryKey, false);
     }
 }
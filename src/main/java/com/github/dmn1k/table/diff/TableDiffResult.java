@@ -2,18 +2,30 @@ package com.github.dmn1k.table.diff;
 
 import io.vavr.Function2;
 import io.vavr.Tuple2;
+import io.vavr.collection.List;
 import io.vavr.control.Option;
 import lombok.Value;
 
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 import static io.vavr.API.*;
 import static io.vavr.Patterns.$None;
 import static io.vavr.Patterns.$Some;
 
 @Value
 public class TableDiffResult {
+    private static final Set<DiffType> ALL_DIFF_TYPES = Collections.unmodifiableSet(EnumSet.allOf(DiffType.class));
+
     private Option<TableRow> newRow;
     private Option<TableRow> oldRow;
     private DiffType diffType;
+    /**
+     * Indexes of the changed cells of a changed row, empty for all other diff-types
+     */
+    private BitSet changedColumns;
 
     public static TableDiffResult create(Tuple2<Option<TableRow>, Option<TableRow>> rows,
                                          Function2<TableCell, TableCell, Boolean> columnComparisonFn) {
@@ -35,16 +47,62 @@ public class TableDiffResult {
                 Case($Some($()), newRow -> Match(optOldRow).of(
 
                         Case($None(), () -> createNew(newRow)),
-                        Case($Some($()), oldRow -> newRow.isSameAs(oldRow, columnComparisonFn)
-                                ? createUnchanged(newRow)
-                                : createChanged(newRow, oldRow)))
+                        Case($Some($()), oldRow -> compare(newRow, oldRow, columnComparisonFn)))
 
                 )
         );
     }
 
+    /**
+     * Like {@link #create(Option, Option, Function2)}, but only creates a result if it is of one of the given types.
+     * Avoids allocating results which would be thrown away anyway
+     *
+     * @param diffTypes the diff-types to create results for
+     * @return the result or none if its type is not included in diffTypes
+     */
+    static Option<TableDiffResult> create(Option<TableRow> optNewRow,
+                                          Option<TableRow> optOldRow,
+                                          ColumnComparisonStrategy columnComparisonFn,
+                                          Set<DiffType> diffTypes) {
+        if (optNewRow.isDefined() && optOldRow.isDefined()) {
+            return compare(optNewRow.get(), optOldRow.get(), columnComparisonFn, diffTypes);
+        }
+        DiffType diffType = optNewRow.isDefined()
+                ? DiffType.New
+                : optOldRow.isDefined() ? DiffType.Deleted : DiffType.Unchanged;
+        return diffTypes.contains(diffType)
+                ? Option.of(create(optNewRow, optOldRow, columnComparisonFn))
+                : Option.none();
+    }
+
+    private static TableDiffResult compare(TableRow newRow,
+                                           TableRow oldRow,
+                                           Function2<TableCell, TableCell, Boolean> columnComparisonFn) {
+        return compare(newRow, oldRow, ColumnComparisonStrategy.of(columnComparisonFn), ALL_DIFF_TYPES).get();
+    }
+
+    private static Option<TableDiffResult> compare(TableRow newRow,
+                                                   TableRow oldRow,
+                                                   ColumnComparisonStrategy columnComparisonFn,
+                                                   Set<DiffType> diffTypes) {
+        BitSet changedColumns = newRow.changedColumns(oldRow, columnComparisonFn);
+        if (changedColumns.isEmpty()) {
+            return diffTypes.contains(DiffType.Unchanged) ? Option.of(createUnchanged(newRow)) : Option.none();
+        }
+        return diffTypes.contains(DiffType.Changed)
+                ? Option.of(createChanged(newRow, oldRow, changedColumns))
+                : Option.none();
+    }
+
+    /**
+     * Creates a changed result without information on which columns changed
+     */
     public static TableDiffResult createChanged(TableRow newRow, TableRow oldRow) {
-        return new TableDiffResult(Option.of(newRow), Option.of(oldRow), DiffType.Changed);
+        return createChanged(newRow, oldRow, new BitSet());
+    }
+
+    public static TableDiffResult createChanged(TableRow newRow, TableRow oldRow, BitSet changedColumns) {
+        return new TableDiffResult(Option.of(newRow), Option.of(oldRow), DiffType.Changed, changedColumns);
     }
 
     public static TableDiffResult createUnchanged(TableRow row) {
@@ -52,21 +110,46 @@ public class TableDiffResult {
     }
 
     public static TableDiffResult createUnchanged(Option<TableRow> row) {
-        return new TableDiffResult(row, row, DiffType.Unchanged);
+        return new TableDiffResult(row, row, DiffType.Unchanged, new BitSet());
     }
 
     public static TableDiffResult createNew(TableRow newRow) {
-        return new TableDiffResult(Option.of(newRow), Option.none(), DiffType.New);
+        return new TableDiffResult(Option.of(newRow), Option.none(), DiffType.New, new BitSet());
     }
 
     public static TableDiffResult createDeleted(TableRow deletedRow) {
-        return new TableDiffResult(Option.none(), Option.of(deletedRow), DiffType.Deleted);
+        return new TableDiffResult(Option.none(), Option.of(deletedRow), DiffType.Deleted, new BitSet());
+    }
+
+    /**
+     * @return the primary key of the new or old row or an empty key if neither exists
+     */
+    public PrimaryKey getPrimaryKey() {
+        return newRow
+                .orElse(oldRow)
+                .map(TableRow::primaryKey)
+                .getOrElse(PrimaryKey.EMPTY);
+    }
+
+    /**
+     * @return indexes of the changed cells of a changed row (in order of the normalized headers),
+     * empty for all other diff-types
+     */
+    public BitSet getChangedColumns() {
+        return (BitSet) changedColumns.clone();
     }
 
-    public String getPrimaryKey() {
+    /**
+     * @return the headers of the changed cells of a changed row, empty for all other diff-types
+     * or if the rows don't belong to a table
+     */
+    public List<TableHeader> getChangedHeaders() {
         return newRow
                 .orElse(oldRow)
-                .map(TableRow::primaryKeyValue)
-                .getOrElse("Neither new nor old row exists. This is odd.");
+                .map(TableRow::headers)
+                .getOrElse(List.empty())
+                .zipWithIndex()
+                .filter(headerWithIndex -> changedColumns.get(headerWithIndex._2))
+                .map(Tuple2::_1);
     }
 }
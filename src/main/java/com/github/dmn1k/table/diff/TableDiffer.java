@@ -1,29 +1,162 @@
 package com.github.dmn1k.table.diff;
 
-import io.vavr.Function1;
 import io.vavr.Function2;
 import io.vavr.Tuple;
 import io.vavr.Tuple2;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Iterator;
 import io.vavr.collection.List;
+import io.vavr.collection.Map;
 import io.vavr.control.Option;
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
-@AllArgsConstructor
 @NoArgsConstructor
 public class TableDiffer {
-    private Function2<TableCell, TableCell, Boolean> cellComparisonFn = ColumnComparisonStrategies.CONSIDER_MISSING_COLUMNS_AS_CHANGE;
+    private static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private ColumnComparisonStrategy cellComparisonFn = ColumnComparisonStrategies.CONSIDER_MISSING_COLUMNS_AS_CHANGE;
+    private Map<String, ColumnComparator> columnComparators = HashMap.empty();
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private Option<Path> spillDirectory = Option.none();
+    private int partitions = 1;
+    private Executor executor = ForkJoinPool.commonPool();
+    private EnumSet<DiffType> diffTypes = EnumSet.allOf(DiffType.class);
+    private DiffMetricsListener metricsListener = DiffMetricsListener.NONE;
+
+    public TableDiffer(Function2<TableCell, TableCell, Boolean> cellComparisonFn) {
+        this.cellComparisonFn = ColumnComparisonStrategy.of(cellComparisonFn);
+    }
+
+    private TableDiffer(TableDiffer other) {
+        this.cellComparisonFn = other.cellComparisonFn;
+        this.columnComparators = other.columnComparators;
+        this.memoryBudget = other.memoryBudget;
+        this.spillDirectory = other.spillDirectory;
+        this.partitions = other.partitions;
+        this.executor = other.executor;
+        this.diffTypes = other.diffTypes;
+        this.metricsListener = other.metricsListener;
+    }
 
     /**
      * This strategy defines if and when two cells are considered equal.
-     * Can be used to alter the diff-behavior
+     * Can be used to alter the diff-behavior. Plain Function2s are adapted to a {@link ColumnComparisonStrategy}
      * @param cellComparisonFn comparison fn
      * @return a new copy of this instance with the new comparison-fn
      */
     public TableDiffer withColumnComparisonStrategy(Function2<TableCell, TableCell, Boolean> cellComparisonFn){
-        return new TableDiffer(cellComparisonFn);
+        TableDiffer copy = new TableDiffer(this);
+        copy.cellComparisonFn = withColumnComparators(ColumnComparisonStrategy.of(cellComparisonFn), columnComparators);
+        return copy;
+    }
+
+    /**
+     * Compares the non-missing cells of a column with a type-aware comparator instead of the column comparison
+     * strategy, e.g. to compare numbers with a tolerance. Missing cells are still handled by the strategy
+     * @param headerName name of the column
+     * @param comparator comparator for the values of the column
+     * @return a new copy of this instance which uses the comparator for the column
+     */
+    public TableDiffer withColumnComparator(String headerName, ColumnComparator comparator) {
+        TableDiffer copy = new TableDiffer(this);
+        copy.columnComparators = columnComparators.put(headerName, comparator);
+        copy.cellComparisonFn = withColumnComparators(baseStrategy(), copy.columnComparators);
+        return copy;
+    }
+
+    /**
+     * Limits the memory used to sort rows in {@link #diffUnsorted(java.util.Iterator, java.util.Iterator)}.
+     * The budget is split evenly between the new and the old rows; rows exceeding it are spilled to disk.
+     * Defaults to 64 MiB
+     * @param memoryBudget approximate number of bytes
+     * @return a new copy of this instance with the new memory budget
+     */
+    public TableDiffer withMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive but was " + memoryBudget);
+        }
+        TableDiffer copy = new TableDiffer(this);
+        copy.memoryBudget = memoryBudget;
+        return copy;
+    }
+
+    /**
+     * Directory for temporary files created by {@link #diffUnsorted(java.util.Iterator, java.util.Iterator)}.
+     * Defaults to the system's temp directory
+     * @param spillDirectory an existing directory
+     * @return a new copy of this instance with the new spill directory
+     */
+    public TableDiffer withSpillDirectory(Path spillDirectory) {
+        TableDiffer copy = new TableDiffer(this);
+        copy.spillDirectory = Option.of(spillDirectory);
+        return copy;
+    }
+
+    /**
+     * Diffs tables in parallel on the common ForkJoinPool.
+     * See {@link #withParallelism(int, Executor)}
+     * @param partitions number of partitions, 1 disables parallel diffing
+     * @return a new copy of this instance with the new parallelism
+     */
+    public TableDiffer withParallelism(int partitions) {
+        return withParallelism(partitions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Diffs tables in parallel: rows are partitioned by the hash of their primary key and each partition
+     * is diffed as a separate task on the given executor. The results are merged in primary key order,
+     * so they are the same as without parallelism.
+     * Only affects {@link #diff(Option, Option)} and its overloads
+     * @param partitions number of partitions, 1 disables parallel diffing
+     * @param executor runs the partition tasks
+     * @return a new copy of this instance with the new parallelism
+     */
+    public TableDiffer withParallelism(int partitions, Executor executor) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be at least 1 but was " + partitions);
+        }
+        TableDiffer copy = new TableDiffer(this);
+        copy.partitions = partitions;
+        copy.executor = executor;
+        return copy;
+    }
+
+    /**
+     * Restricts the results to the given diff-types. Rows of other types are still compared, but no
+     * results are created for them. E.g. leaving out {@link DiffType#Unchanged} keeps the memory used
+     * for results proportional to the number of changes.
+     * Affects all diff-methods. Defaults to all diff-types
+     * @param diffTypes the diff-types to report
+     * @return a new copy of this instance which only reports the given diff-types
+     */
+    public TableDiffer withDiffTypes(DiffType... diffTypes) {
+        TableDiffer copy = new TableDiffer(this);
+        copy.diffTypes = EnumSet.noneOf(DiffType.class);
+        copy.diffTypes.addAll(java.util.Arrays.asList(diffTypes));
+        return copy;
+    }
+
+    /**
+     * Reports timings per {@link DiffPhase} and counts per {@link DiffType} of every diff to the listener.
+     * Defaults to {@link DiffMetricsListener#NONE}, which measures nothing
+     * @param metricsListener receives the metrics
+     * @return a new copy of this instance which reports to the listener
+     */
+    public TableDiffer withMetricsListener(DiffMetricsListener metricsListener) {
+        TableDiffer copy = new TableDiffer(this);
+        copy.metricsListener = metricsListener;
+        return copy;
     }
 
     /**
@@ -53,28 +186,231 @@ public class TableDiffer {
      * @return a list of diff-results
      */
     public List<TableDiffResult> diff(Option<Table> newTable, Option<Table> oldTable) {
-        List<TableHeader> headerSuperset = createHeaderSuperset(newTable, oldTable);
+        java.util.List<TableDiffResult> results = new ArrayList<>();
+        diff(newTable, oldTable, results::add);
+        return List.ofAll(results);
+    }
 
-        List<TableRow> newTableRows = toNormalizedRows(newTable, headerSuperset);
-        List<TableRow> oldTableRows = toNormalizedRows(oldTable, headerSuperset);
+    /**
+     * Compares two tables and passes each Diff-Result to sink as soon as it is created, sorted by primary key.
+     * Combined with {@link #withDiffTypes(DiffType...)} no result objects are held for rows which aren't of interest
+     * @param newTable The new table (can be null)
+     * @param oldTable The old table (can be null)
+     * @param sink receives the diff-results
+     */
+    public void diff(Table newTable, Table oldTable, Consumer<? super TableDiffResult> sink) {
+        diff(Option.of(newTable), Option.of(oldTable), sink);
+    }
 
-        List<String> allPrimaryKeys = extractAllPrimaryKeys(newTableRows, oldTableRows);
+    /**
+     * Compares two tables and passes each Diff-Result to sink as soon as it is created, sorted by primary key.
+     * Combined with {@link #withDiffTypes(DiffType...)} no result objects are held for rows which aren't of interest
+     * @param newTable The new table
+     * @param oldTable The old table
+     * @param sink receives the diff-results
+     */
+    public void diff(Option<Table> newTable, Option<Table> oldTable, Consumer<? super TableDiffResult> sink) {
+        DiffRun run = DiffRun.start(metricsListener);
+        List<TableHeader> headerSuperset = run.time(DiffPhase.HEADER_SUPERSET,
+                () -> createHeaderSuperset(newTable, oldTable));
 
-        Function1<String, Tuple2<Option<TableRow>, Option<TableRow>>> findRowsByPrimaryKey = primKey -> Tuple.of(
-                newTableRows.find(r -> r.primaryKeyValue().equals(primKey)),
-                oldTableRows.find(r -> r.primaryKeyValue().equals(primKey))
-        );
+        Tuple2<List<TableRow>, List<TableRow>> normalizedRows = run.time(DiffPhase.NORMALIZATION,
+                () -> Tuple.of(toNormalizedRows(newTable, headerSuperset), toNormalizedRows(oldTable, headerSuperset)));
+        run.addRows(newTable.map(Table::rowCount).getOrElse(0) + oldTable.map(Table::rowCount).getOrElse(0));
 
-        return allPrimaryKeys
-                .map(findRowsByPrimaryKey)
-                .map(tuple -> TableDiffResult.create(tuple, cellComparisonFn))
-                .sortBy(TableDiffResult::getPrimaryKey);
+        Consumer<? super TableDiffResult> countingSink = run.counting(sink);
+        if (partitions == 1) {
+            hashJoin(normalizedRows._1, normalizedRows._2, countingSink, run);
+        } else {
+            run.run(DiffPhase.COMPARISON,
+                    () -> parallelHashJoin(normalizedRows._1, normalizedRows._2).forEachRemaining(countingSink));
+        }
+        run.complete();
     }
 
-    public List<String> extractAllPrimaryKeys(List<TableRow> newTableRows, List<TableRow> oldTableRows) {
+    /**
+     * Compares a table against a snapshot of its previous version and creates a List of Diff-Results
+     * @param newTable The new table
+     * @param snapshot The snapshot of the old table (see {@link TableSnapshot#write(Table, Path)})
+     * @return a list of diff-results
+     */
+    public List<TableDiffResult> diff(Table newTable, TableSnapshot snapshot) {
+        java.util.List<TableDiffResult> results = new ArrayList<>();
+        diff(newTable, snapshot, results::add);
+        return List.ofAll(results);
+    }
+
+    /**
+     * Compares a table against a snapshot of its previous version and passes each Diff-Result to sink,
+     * sorted by primary key.
+     * If the tables have the same headers and one of the built-in {@link ColumnComparisonStrategies} is used,
+     * unchanged rows are recognized by their fingerprint without reading them from the snapshot. Their results
+     * contain the new row as old row. Old rows are only read for changed and deleted keys, and only these are held in
+     * memory while the results are passed to sink
+     * @param newTable The new table
+     * @param snapshot The snapshot of the old table
+     * @param sink receives the diff-results
+     * @throws java.io.UncheckedIOException if the snapshot can't be read
+     */
+    public void diff(Table newTable, TableSnapshot snapshot, Consumer<? super TableDiffResult> sink) {
+        DiffRun run = DiffRun.start(metricsListener);
+        run.addRows(newTable.rowCount() + snapshot.getRowCount());
+        List<TableHeader> headerSuperset = newTable.getHeaders().appendAll(snapshot.getHeaders()).distinct();
+        TableSnapshot.Layout layout = snapshot.layout(headerSuperset);
+        boolean compareFingerprints = ColumnComparisonStrategies.considersEqualValuesAsSame(cellComparisonFn)
+                && newTable.getHeaders().toSet().equals(snapshot.getHeaders().toSet());
+
+        Map<PrimaryKey, TableRow> newRowsByPrimaryKey = indexByPrimaryKey(newTable.normalize(headerSuperset).getRows());
+        java.util.List<TableRow> newRows = newRowsByPrimaryKey.keySet().toList().sorted()
+                .map(primKey -> newRowsByPrimaryKey.get(primKey).get())
+                .toJavaList();
+        TableSnapshot.Matches matches = snapshot.match(newRows, compareFingerprints,
+                diffTypes.contains(DiffType.Deleted), layout);
+
+        Iterator<TableDiffResult> newResults = Iterator.range(0, newRows.size()).flatMap(row -> {
+            TableRow newRow = newRows.get(row);
+            if (matches.isUnchanged(row)) {
+                return diffTypes.contains(DiffType.Unchanged)
+                        ? Option.of(TableDiffResult.createUnchanged(newRow))
+                        : Option.none();
+            }
+            return TableDiffResult.create(Option.of(newRow), Option.of(matches.oldRow(newRow.primaryKey())),
+                    cellComparisonFn, diffTypes);
+        });
+        java.util.List<TableRow> deletedRows = matches.deletedRows();
+        deletedRows.sort(Comparator.comparing(TableRow::primaryKey));
+        Iterator<TableDiffResult> deletedResults = Iterator.ofAll(deletedRows).map(TableDiffResult::createDeleted);
+
+        SortedMerge.merge(List.of(newResults, deletedResults), Comparator.comparing(TableDiffResult::getPrimaryKey))
+                .forEachRemaining(run.counting(sink));
+        run.complete();
+    }
+
+    /**
+     * Compares two tables and only counts the results instead of returning them.
+     * Counts all diff-types, regardless of {@link #withDiffTypes(DiffType...)}
+     * @param newTable The new table (can be null)
+     * @param oldTable The old table (can be null)
+     * @return the number of rows per diff-type and the number of changed rows per column
+     */
+    public DiffSummary summarize(Table newTable, Table oldTable) {
+        return summarize(Option.of(newTable), Option.of(oldTable), 0);
+    }
+
+    /**
+     * Compares two tables and only counts the results instead of returning them.
+     * No diff-results are created, rows are only compared and counted.
+     * Counts all diff-types, regardless of {@link #withDiffTypes(DiffType...)}
+     * @param newTable The new table
+     * @param oldTable The old table
+     * @param sampleSize number of sample primary keys to keep per diff-type
+     * @return the number of rows per diff-type, the number of changed rows per column and sample keys
+     */
+    public DiffSummary summarize(Option<Table> newTable, Option<Table> oldTable, int sampleSize) {
+        DiffSummary.Collector collector = DiffSummary.collector(sampleSize);
+        DiffRun run = DiffRun.start(metricsListener);
+        List<TableHeader> headerSuperset = run.time(DiffPhase.HEADER_SUPERSET,
+                () -> createHeaderSuperset(newTable, oldTable));
+
+        Tuple2<List<TableRow>, List<TableRow>> normalizedRows = run.time(DiffPhase.NORMALIZATION,
+                () -> Tuple.of(toNormalizedRows(newTable, headerSuperset), toNormalizedRows(oldTable, headerSuperset)));
+        run.addRows(newTable.map(Table::rowCount).getOrElse(0) + oldTable.map(Table::rowCount).getOrElse(0));
+
+        DiffSummary summary;
+        if (partitions == 1) {
+            countingHashJoin(normalizedRows._1, normalizedRows._2, headerSuperset, collector, run);
+            summary = collector.toSummary();
+        } else {
+            summary = run.time(DiffPhase.COMPARISON,
+                    () -> parallelCountingHashJoin(normalizedRows._1, normalizedRows._2, headerSuperset, sampleSize));
+        }
+        for (DiffType diffType : DiffType.values()) {
+            run.addResults(diffType, summary.getCount(diffType));
+        }
+        run.complete();
+        return summary;
+    }
+
+    /**
+     * Compares two streams of rows which are both sorted by primary key.
+     * The rows are merged lazily so only one row of each side is held in memory at any time,
+     * which allows diffing tables which don't fit into memory.
+     * Both sides must already share the same column layout (see {@link Table#normalize(List)})
+     *
+     * @param newRows rows of the new table, sorted by primary key
+     * @param oldRows rows of the old table, sorted by primary key
+     * @return a lazy iterator of diff-results sorted by primary key
+     * @throws IllegalStateException while iterating, if one of the inputs is not sorted
+     */
+    public Iterator<TableDiffResult> diffSorted(java.util.Iterator<TableRow> newRows,
+                                                java.util.Iterator<TableRow> oldRows) {
+        return diffSorted(newRows, oldRows, DiffRun.start(metricsListener));
+    }
+
+    /**
+     * Compares two table files in a single pass over their key indexes
+     * (see {@link #diffSorted(java.util.Iterator, java.util.Iterator)}), so neither table is loaded into memory.
+     * The primary key-columns of both files have to be in the same order
+     *
+     * @param newFile the new table
+     * @param oldFile the old table
+     * @return a lazy iterator of diff-results sorted by primary key
+     */
+    public Iterator<TableDiffResult> diffSorted(TableFile newFile, TableFile oldFile) {
+        List<TableHeader> headerSuperset =
+                createHeaderSuperset(Option.of(newFile.getTable()), Option.of(oldFile.getTable()));
+        return diffSorted(newFile.rowsSortedByPrimaryKey(headerSuperset), oldFile.rowsSortedByPrimaryKey(headerSuperset));
+    }
+
+    /**
+     * Compares two streams of rows in arbitrary order which may be too large to fit into memory.
+     * Both sides are sorted by primary key within the configured memory budget (see {@link #withMemoryBudget(long)}),
+     * spilling sorted runs to temporary files if necessary, and are then merged like in
+     * {@link #diffSorted(java.util.Iterator, java.util.Iterator)}.
+     * Both sides must already share the same column layout (see {@link Table#normalize(List)})
+     *
+     * @param newRows rows of the new table
+     * @param oldRows rows of the old table
+     * @return a lazy iterator of diff-results sorted by primary key. Temporary files are deleted once it has been
+     * read completely, so it has to be closed if it is not
+     * @throws java.io.UncheckedIOException if spilling to disk fails
+     */
+    public CloseableIterator<TableDiffResult> diffUnsorted(java.util.Iterator<TableRow> newRows,
+                                                           java.util.Iterator<TableRow> oldRows) {
+        ExternalRowSorter sorter = new ExternalRowSorter(memoryBudget / 2, spillDirectory);
+        DiffRun run = DiffRun.start(metricsListener);
+        Tuple2<CloseableIterator<TableRow>, CloseableIterator<TableRow>> sortedRows = run.time(DiffPhase.SORTING,
+                () -> {
+                    CloseableIterator<TableRow> newSorted = sorter.sort(run.countingRows(newRows));
+                    try {
+                        return Tuple.of(newSorted, sorter.sort(run.countingRows(oldRows)));
+                    } catch (RuntimeException | Error e) {
+                        newSorted.close();
+                        throw e;
+                    }
+                });
+        return CloseableIterator.of(
+                run.counting(new SortMergeDiffIterator(sortedRows._1, sortedRows._2, cellComparisonFn, diffTypes)),
+                () -> {
+                    try {
+                        sortedRows._1.close();
+                    } finally {
+                        sortedRows._2.close();
+                    }
+                });
+    }
+
+    private Iterator<TableDiffResult> diffSorted(java.util.Iterator<TableRow> newRows,
+                                                 java.util.Iterator<TableRow> oldRows,
+                                                 DiffRun run) {
+        return run.counting(new SortMergeDiffIterator(
+                run.countingRows(newRows), run.countingRows(oldRows), cellComparisonFn, diffTypes));
+    }
+
+    public List<PrimaryKey> extractAllPrimaryKeys(List<TableRow> newTableRows, List<TableRow> oldTableRows) {
         return newTableRows
                 .appendAll(oldTableRows)
-                .map(TableRow::primaryKeyValue)
+                .map(TableRow::primaryKey)
                 .distinct();
     }
 
@@ -93,4 +429,168 @@ public class TableDiffer {
                     .getOrElse(List.empty());
     }
 
+    private void hashJoin(List<TableRow> newTableRows,
+                          List<TableRow> oldTableRows,
+                          Consumer<? super TableDiffResult> sink,
+                          DiffRun run) {
+        if (run.isEnabled()) {
+            // keys are extracted lazily while indexing, so they are only timed on their own if somebody listens
+            run.run(DiffPhase.KEY_EXTRACTION, () -> {
+                newTableRows.forEach(TableRow::primaryKey);
+                oldTableRows.forEach(TableRow::primaryKey);
+            });
+        }
+        Tuple2<Map<PrimaryKey, TableRow>, Map<PrimaryKey, TableRow>> index = run.time(DiffPhase.MATCHING,
+                () -> Tuple.of(indexByPrimaryKey(newTableRows), indexByPrimaryKey(oldTableRows)));
+        List<PrimaryKey> primaryKeys = run.time(DiffPhase.SORTING,
+                () -> index._1.keySet().addAll(index._2.keySet()).toList().sorted());
+
+        run.run(DiffPhase.COMPARISON, () -> primaryKeys
+                .forEach(primKey -> TableDiffResult.create(
+                        index._1.get(primKey),
+                        index._2.get(primKey),
+                        cellComparisonFn,
+                        diffTypes).forEach(sink)));
+    }
+
+    /**
+     * Like {@link #hashJoin(List, List, Consumer, DiffRun)}, but only counts the results instead of creating them.
+     * Keys aren't sorted, the collector keeps the lowest ones as samples
+     */
+    private void countingHashJoin(List<TableRow> newTableRows,
+                                  List<TableRow> oldTableRows,
+                                  List<TableHeader> headerSuperset,
+                                  DiffSummary.Collector collector,
+                                  DiffRun run) {
+        if (run.isEnabled()) {
+            run.run(DiffPhase.KEY_EXTRACTION, () -> {
+                newTableRows.forEach(TableRow::primaryKey);
+                oldTableRows.forEach(TableRow::primaryKey);
+            });
+        }
+        java.util.Map<PrimaryKey, TableRow> newIndex = new java.util.HashMap<>();
+        java.util.Map<PrimaryKey, TableRow> oldIndex = new java.util.HashMap<>();
+        run.run(DiffPhase.MATCHING, () -> {
+            newTableRows.forEach(row -> newIndex.putIfAbsent(row.primaryKey(), row));
+            oldTableRows.forEach(row -> oldIndex.putIfAbsent(row.primaryKey(), row));
+        });
+
+        long[] changedColumnCounts = new long[headerSuperset.size()];
+        run.run(DiffPhase.COMPARISON, () -> {
+            newIndex.forEach((primaryKey, newRow) -> {
+                TableRow oldRow = oldIndex.get(primaryKey);
+                if (oldRow == null) {
+                    collector.count(DiffType.New, primaryKey);
+                } else if (newRow.isSameAs(oldRow, cellComparisonFn)) {
+                    collector.count(DiffType.Unchanged, primaryKey);
+                } else {
+                    collector.count(DiffType.Changed, primaryKey);
+                    BitSet changedColumns = newRow.changedColumns(oldRow, cellComparisonFn);
+                    for (int column = changedColumns.nextSetBit(0); column >= 0;
+                         column = changedColumns.nextSetBit(column + 1)) {
+                        changedColumnCounts[column]++;
+                    }
+                }
+            });
+            oldIndex.forEach((primaryKey, oldRow) -> {
+                if (!newIndex.containsKey(primaryKey)) {
+                    collector.count(DiffType.Deleted, primaryKey);
+                }
+            });
+        });
+        int column = 0;
+        for (TableHeader header : headerSuperset) {
+            if (changedColumnCounts[column] > 0) {
+                collector.countChangedColumn(header, changedColumnCounts[column]);
+            }
+            column++;
+        }
+    }
+
+    /**
+     * Partitions both sides by primary key hash and summarizes the partitions in parallel
+     */
+    private DiffSummary parallelCountingHashJoin(List<TableRow> newTableRows,
+                                                 List<TableRow> oldTableRows,
+                                                 List<TableHeader> headerSuperset,
+                                                 int sampleSize) {
+        CompletableFuture<java.util.List<java.util.List<TableRow>>> newPartitions =
+                CompletableFuture.supplyAsync(() -> partition(newTableRows), executor);
+        CompletableFuture<java.util.List<java.util.List<TableRow>>> oldPartitions =
+                CompletableFuture.supplyAsync(() -> partition(oldTableRows), executor);
+
+        java.util.List<CompletableFuture<DiffSummary>> partitionSummaries = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            int index = partition;
+            partitionSummaries.add(newPartitions.thenCombineAsync(oldPartitions, (newRows, oldRows) -> {
+                DiffSummary.Collector collector = DiffSummary.collector(sampleSize);
+                countingHashJoin(List.ofAll(newRows.get(index)), List.ofAll(oldRows.get(index)), headerSuperset,
+                        collector, DiffRun.start(DiffMetricsListener.NONE));
+                return collector.toSummary();
+            }, executor));
+        }
+
+        return List.ofAll(partitionSummaries).map(CompletableFuture::join).reduce(DiffSummary::merge);
+    }
+
+    private ColumnComparisonStrategy baseStrategy() {
+        return cellComparisonFn instanceof PerColumnComparisonStrategy
+                ? ((PerColumnComparisonStrategy) cellComparisonFn).getBaseStrategy()
+                : cellComparisonFn;
+    }
+
+    private static ColumnComparisonStrategy withColumnComparators(ColumnComparisonStrategy strategy,
+                                                                  Map<String, ColumnComparator> columnComparators) {
+        return columnComparators.isEmpty() ? strategy : new PerColumnComparisonStrategy(strategy, columnComparators);
+    }
+
+    /**
+     * Partitions both sides by primary key hash, hash-joins the partitions in parallel and merges
+     * the sorted partition results
+     */
+    private Iterator<TableDiffResult> parallelHashJoin(List<TableRow> newTableRows, List<TableRow> oldTableRows) {
+        CompletableFuture<java.util.List<java.util.List<TableRow>>> newPartitions =
+                CompletableFuture.supplyAsync(() -> partition(newTableRows), executor);
+        CompletableFuture<java.util.List<java.util.List<TableRow>>> oldPartitions =
+                CompletableFuture.supplyAsync(() -> partition(oldTableRows), executor);
+
+        java.util.List<CompletableFuture<java.util.List<TableDiffResult>>> partitionResults = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            int index = partition;
+            partitionResults.add(newPartitions.thenCombineAsync(oldPartitions, (newRows, oldRows) -> {
+                java.util.List<TableDiffResult> results = new ArrayList<>();
+                hashJoin(List.ofAll(newRows.get(index)), List.ofAll(oldRows.get(index)), results::add,
+                        DiffRun.start(DiffMetricsListener.NONE));
+                return results;
+            }, executor));
+        }
+
+        return SortedMerge.merge(
+                List.ofAll(partitionResults).map(result -> result.join().iterator()),
+                Comparator.comparing(TableDiffResult::getPrimaryKey));
+    }
+
+    private java.util.List<java.util.List<TableRow>> partition(List<TableRow> rows) {
+        java.util.List<java.util.List<TableRow>> partitioned = new ArrayList<>(partitions);
+        for (int partition = 0; partition < partitions; partition++) {
+            partitioned.add(new ArrayList<>());
+        }
+        for (TableRow row : rows) {
+            partitioned.get(Math.floorMod(row.primaryKey().hashCode(), partitions)).add(row);
+        }
+        return partitioned;
+    }
+
+    /**
+     * Indexes rows by their primary key so each side of a diff is scanned only once.
+     * If several rows share a primary key the first one wins
+     *
+     * @param rows normalized rows of one table
+     * @return a map from primary key to row
+     */
+    private static Map<PrimaryKey, TableRow> indexByPrimaryKey(List<TableRow> rows) {
+        return rows.foldLeft(HashMap.empty(),
+                (index, row) -> index.put(row.primaryKey(), row, (first, duplicate) -> first));
+    }
+
 }
@@ -0,0 +1,247 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Binary, column-wise file format for {@link Table}s which is read by memory mapping the file.
+ * Opening a file only reads the headers and the directory; rows are views over the mapped file, whose
+ * fingerprints, bitmaps and values are read from the mapping when they are accessed. Cells of two mapped tables are compared byte by byte.
+ * The file contains, in this order:
+ * <ul>
+ * <li>the headers (names and primary key-flags) and the row count</li>
+ * <li>a directory with the positions of all following sections</li>
+ * <li>the fingerprints of all rows</li>
+ * <li>a key index: the row indexes in order of their primary keys</li>
+ * <li>per column: bitmaps of missing cells and null values, the UTF-8 encoded values and their offsets</li>
+ * </ul>
+ */
+public final class TableFile {
+    private static final int MAGIC = 0x54445431;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int SECTIONS_PER_COLUMN = 4;
+
+    private final Table table;
+    private final MappedRegion region;
+    private final long keyIndexPosition;
+
+    private TableFile(Table table, MappedRegion region, long keyIndexPosition) {
+        this.table = table;
+        this.region = region;
+        this.keyIndexPosition = keyIndexPosition;
+    }
+
+    /**
+     * @param table the table to write
+     * @param file  the file to write to. An existing file is overwritten
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Table table, Path file) throws IOException {
+        int columnCount = table.getHeaders().size();
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(columnCount);
+        for (TableHeader tableHeader : table.getHeaders()) {
+            headerOut.writeUTF(tableHeader.getValue());
+            headerOut.writeBoolean(tableHeader.isPrimaryKey());
+        }
+        headerOut.writeInt(table.rowCount());
+        long[] directory = new long[2 + columnCount * SECTIONS_PER_COLUMN];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel, align(header.size()) + (long) directory.length * Long.BYTES);
+
+            directory[0] = out.position();
+            for (int row = 0; row < table.rowCount(); row++) {
+                out.data.writeLong(table.row(row).fingerprint());
+            }
+            directory[1] = out.position();
+            for (int row : keyIndex(table)) {
+                out.data.writeInt(row);
+            }
+            for (int column = 0; column < columnCount; column++) {
+                writeColumn(table, column, out, directory, 2 + column * SECTIONS_PER_COLUMN);
+            }
+            out.data.flush();
+
+            out = new Output(channel, 0);
+            header.writeTo(out.data);
+            out.alignTo8();
+            for (long position : directory) {
+                out.data.writeLong(position);
+            }
+            out.data.flush();
+        }
+    }
+
+    /**
+     * @param file a file written by {@link #write(Table, Path)}
+     * @return the table file, which stays readable after the file has been closed
+     * @throws IOException if the file can't be read or has another format
+     */
+    public static TableFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a table file");
+            }
+            TableHeader[] headers = new TableHeader[in.readInt()];
+            for (int i = 0; i < headers.length; i++) {
+                String name = in.readUTF();
+                headers[i] = in.readBoolean() ? TableHeader.createPrimaryKey(name) : TableHeader.create(name);
+            }
+            int rowCount = in.readInt();
+            long directoryPosition = align(channel.position());
+
+            MappedRegion region = MappedRegion.map(channel);
+            long fingerprintsPosition = region.getLong(directoryPosition);
+            RowFingerprints fingerprints = row -> region.getLong(fingerprintsPosition + (long) row * Long.BYTES);
+            Column[] columns = new Column[headers.length];
+            for (int column = 0; column < columns.length; column++) {
+                long sections = directoryPosition + (2L + column * SECTIONS_PER_COLUMN) * Long.BYTES;
+                columns[column] = new MappedColumn(
+                        region,
+                        region.getLong(sections),
+                        region.getLong(sections + Long.BYTES),
+                        region.getLong(sections + 2 * Long.BYTES),
+                        region.getLong(sections + 3 * Long.BYTES),
+                        rowCount,
+                        headers[column].isPrimaryKey());
+            }
+            return new TableFile(new Table(List.of(headers), columns, fingerprints, rowCount),
+                    region, region.getLong(directoryPosition + Long.BYTES));
+        }
+    }
+
+    /**
+     * @return the table backed by the mapped file. Note that {@link Table#getRows()} creates a view for every row,
+     * use {@link #rowsSortedByPrimaryKey(List)} to iterate over large tables
+     */
+    public Table getTable() {
+        return table;
+    }
+
+    /**
+     * Lazily creates views of all rows in order of their primary keys, using the key index of the file.
+     * Can be passed to {@link TableDiffer#diffSorted(java.util.Iterator, java.util.Iterator)} directly
+     *
+     * @param targetHeaders the column layout of the returned rows (see {@link Table#normalize(List)})
+     * @return a lazy iterator over all rows sorted by primary key
+     */
+    public Iterator<TableRow> rowsSortedByPrimaryKey(List<TableHeader> targetHeaders) {
+        Table normalized = table.normalize(targetHeaders);
+        return Iterator.range(0, table.rowCount())
+                .map(i -> normalized.row(region.getInt(keyIndexPosition + (long) i * Integer.BYTES)));
+    }
+
+    private static void writeColumn(Table table, int column, Output out, long[] directory, int section)
+            throws IOException {
+        Column values = table.getColumn(column);
+        BitSet nulls = new BitSet();
+        long[] offsets = new long[table.rowCount() + 1];
+
+        directory[section + 3] = out.position();
+        long offset = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            String value = values.isMissing(row) ? null : values.storedValue(row);
+            if (value == null) {
+                nulls.set(row, !values.isMissing(row));
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.data.write(bytes);
+                offset += bytes.length;
+            }
+            offsets[row + 1] = offset;
+        }
+        out.alignTo8();
+
+        directory[section + 2] = out.position();
+        for (long rowOffset : offsets) {
+            out.data.writeLong(rowOffset);
+        }
+        directory[section] = out.position();
+        writeBitSet(out, values.copyMissing(), table.rowCount());
+        directory[section + 1] = out.position();
+        writeBitSet(out, nulls, table.rowCount());
+    }
+
+    private static int[] keyIndex(Table table) {
+        PrimaryKey[] keys = new PrimaryKey[table.rowCount()];
+        Integer[] rows = new Integer[table.rowCount()];
+        for (int row = 0; row < rows.length; row++) {
+            keys[row] = table.row(row).primaryKey();
+            rows[row] = row;
+        }
+        Arrays.sort(rows, (a, b) -> keys[a].compareTo(keys[b]));
+        return Arrays.stream(rows).mapToInt(row -> row).toArray();
+    }
+
+    private static void writeBitSet(Output out, BitSet bits, int rowCount) throws IOException {
+        long[] words = Arrays.copyOf(bits.toLongArray(), wordCount(rowCount));
+        for (long word : words) {
+            out.data.writeLong(word);
+        }
+    }
+
+    private static int wordCount(int rowCount) {
+        return (rowCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * Buffered output to a file channel which keeps track of the file position
+     */
+    private static final class Output {
+        private final DataOutputStream data;
+        private final long start;
+        private long written;
+
+        Output(FileChannel channel, long start) throws IOException {
+            channel.position(start);
+            this.start = start;
+            this.data = new DataOutputStream(new FilterOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE)) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    written++;
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                    written += length;
+                }
+            });
+        }
+
+        long position() {
+            return start + written;
+        }
+
+        void alignTo8() throws IOException {
+            while (position() % Long.BYTES != 0) {
+                data.writeByte(0);
+            }
+        }
+    }
+}
@@ -4,57 +4,241 @@ import io.vavr.Function2;
 import io.vavr.collection.List;
 import io.vavr.control.Option;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.ToString;
+import lombok.RequiredArgsConstructor;
 
-@Getter
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
-@ToString
+import java.util.BitSet;
+
+/**
+ * Lightweight view of a single row within column-wise stored cells
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 public class TableRow {
-    private List<TableCell> cells;
+    private final List<TableHeader> headers;
+    private final Column[] columns;
+    /**
+     * Content fingerprints of all rows of the table this row belongs to, null if the row doesn't belong to a table
+     */
+    private final RowFingerprints fingerprints;
+    private final int index;
+    private PrimaryKey primaryKey;
 
     public static TableRow create() {
         return create(List.empty());
     }
 
     public static TableRow create(List<TableCell> cells) {
-        return new TableRow(cells);
+        return new TableRow(List.empty(), cells.map(Column::of).toJavaArray(Column.class), null, 0);
+    }
+
+    /**
+     * @return the cells of this row. They are created on demand from the underlying columns
+     */
+    public List<TableCell> getCells() {
+        return List.of(columns).map(column -> column.getCell(index));
+    }
+
+    /**
+     * The key is computed on first access and cached afterwards
+     *
+     * @return the values of all Primary Key-Cells
+     * or ALL cell-values if there is no primary key-cell
+     */
+    public PrimaryKey primaryKey() {
+        if (primaryKey == null) {
+            primaryKey = computePrimaryKey();
+        }
+        return primaryKey;
     }
 
     /**
      * @return all Primary Key-Cells concatenated as a single string
      * or ALL cell-values if there is no primary key-cell
+     * @deprecated values are concatenated without separator, so different keys may collide. Use {@link #primaryKey()}
      */
+    @Deprecated
     public String primaryKeyValue() {
-        return cells
-                .filter(TableCell::isPrimaryKey)
-                .orElse(cells)
-                .map(TableCell::getValue)
-                .foldLeft("", String::concat);
+        return primaryKey().getValues().foldLeft("", String::concat);
     }
 
     public TableRow addCell(TableCell cell) {
-        return create(cells.append(cell));
+        return create(getCells().append(cell));
     }
 
     public TableCell getCellOrMissing(Option<Integer> index) {
-        return index.map(cells::get).getOrElse(TableCell.MISSING_CELL);
+        return index.map(this::getCell).getOrElse(TableCell.MISSING_CELL);
     }
 
     /**
-     * Uses comparisonFn to determine of normalizedOther is the same row
+     * Uses comparisonFn to determine of normalizedOther is the same row.
+     * If both rows belong to tables with the same headers and the comparisonFn considers equal values as the same,
+     * rows without missing cells are compared by their content fingerprints instead of cell by cell
      *
      * @param normalizedOther row to compare against
      * @param comparisonFn    function which defines equality of cells
      * @return true if both rows are considered the same
      */
     public boolean isSameAs(TableRow normalizedOther, Function2<TableCell, TableCell, Boolean> comparisonFn) {
-        if (cells.size() != normalizedOther.getCells().size()) {
+        if (size() != normalizedOther.size()) {
             return false;
         }
+        ColumnComparisonStrategy strategy = ColumnComparisonStrategy.of(comparisonFn);
+        boolean comparesValues = ColumnComparisonStrategies.considersEqualValuesAsSame(comparisonFn);
+        if (comparesValues && hasSameFingerprintAs(normalizedOther)) {
+            return true;
+        }
+
+        ColumnComparator[] comparators = columnComparators(normalizedOther, strategy);
+        for (int i = 0; i < columns.length; i++) {
+            if (!isSameCell(i, normalizedOther, strategy, comparators, comparesValues)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fingerprints are computed once when rows are added to a table (see {@link TableBuilder}).
+     * Equal fingerprints mean equal content (with a negligible probability of collisions),
+     * different fingerprints don't prove that the rows differ according to a comparison-fn
+     */
+    private boolean hasSameFingerprintAs(TableRow other) {
+        return fingerprints != null
+                && other.fingerprints != null
+                && fingerprints.get(index) == other.fingerprints.get(other.index)
+                && headers.equals(other.headers)
+                && !hasMissingCell()
+                && !other.hasMissingCell();
+    }
+
+    /**
+     * @return the content fingerprint of this row. Only available for rows belonging to a table
+     */
+    long fingerprint() {
+        return fingerprints.get(index);
+    }
+
+    boolean hasMissingCell() {
+        for (Column column : columns) {
+            if (column.isMissing(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PrimaryKey computePrimaryKey() {
+        int primaryKeyCellCount = 0;
+        for (Column column : columns) {
+            if (isPrimaryKeyCell(column)) {
+                primaryKeyCellCount++;
+            }
+        }
+        if (primaryKeyCellCount == 0) {
+            String[] values = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = columns[i].getValue(index);
+            }
+            return PrimaryKey.wrap(values);
+        }
+
+        String[] values = new String[primaryKeyCellCount];
+        int i = 0;
+        for (Column column : columns) {
+            if (isPrimaryKeyCell(column)) {
+                values[i++] = column.getValue(index);
+            }
+        }
+        return PrimaryKey.wrap(values);
+    }
+
+    private boolean isPrimaryKeyCell(Column column) {
+        return column.isPrimaryKey() && !column.isMissing(index);
+    }
+
+    /**
+     * Compares all cells (in a single pass) and collects the indexes of the cells which differ.
+     * Cells which only exist in one of the rows count as changed
+     *
+     * @param normalizedOther row to compare against
+     * @param comparisonFn    function which defines equality of cells
+     * @return the indexes of all changed cells, empty if both rows are considered the same
+     */
+    BitSet changedColumns(TableRow normalizedOther, ColumnComparisonStrategy comparisonFn) {
+        BitSet changedColumns = new BitSet();
+        int commonSize = Math.min(size(), normalizedOther.size());
+        changedColumns.set(commonSize, Math.max(size(), normalizedOther.size()));
+        boolean comparesValues = ColumnComparisonStrategies.considersEqualValuesAsSame(comparisonFn);
+        if (size() == normalizedOther.size() && comparesValues && hasSameFingerprintAs(normalizedOther)) {
+            return changedColumns;
+        }
+
+        ColumnComparator[] comparators = columnComparators(normalizedOther, comparisonFn);
+        for (int i = 0; i < commonSize; i++) {
+            if (!isSameCell(i, normalizedOther, comparisonFn, comparators, comparesValues)) {
+                changedColumns.set(i);
+            }
+        }
+        return changedColumns;
+    }
+
+    /**
+     * Two non-missing cells are compared by the {@link ColumnComparator} of their column if there is one.
+     * Otherwise, if comparisonFn is one of the built-in strategies, they are compared by their stored values
+     * directly (see {@link Column#hasEqualValue(int, Column, int)}) without creating cell objects
+     */
+    private boolean isSameCell(int column, TableRow other, ColumnComparisonStrategy comparisonFn,
+                               ColumnComparator[] comparators, boolean comparesValues) {
+        Column otherColumn = other.columns[column];
+        boolean bothPresent = !columns[column].isMissing(index) && !otherColumn.isMissing(other.index);
+        if (bothPresent && comparators != null && comparators[column] != null) {
+            return comparators[column].isSame(columns[column], index, otherColumn, other.index);
+        }
+        if (comparesValues && bothPresent) {
+            return columns[column].hasEqualValue(index, otherColumn, other.index);
+        }
+        return comparisonFn.isSame(getCell(column), other.getCell(column));
+    }
+
+    /**
+     * @return the column comparators of comparisonFn for the headers of these rows or null if there are none
+     * @throws IllegalStateException if there are column comparators but the headers of the rows don't match their cells
+     */
+    private ColumnComparator[] columnComparators(TableRow other, ColumnComparisonStrategy comparisonFn) {
+        if (!(comparisonFn instanceof PerColumnComparisonStrategy)) {
+            return null;
+        }
+        List<TableHeader> rowHeaders = headers.isEmpty() ? other.headers : headers;
+        if (rowHeaders.size() != columns.length) {
+            throw new IllegalStateException("Column comparators need rows with headers, but the row has "
+                    + columns.length + " cells and the headers are " + rowHeaders);
+        }
+        return ((PerColumnComparisonStrategy) comparisonFn).comparatorsFor(rowHeaders);
+    }
+
+    /**
+     * @return the headers of the table this row belongs to, empty if it doesn't belong to a table
+     */
+    List<TableHeader> headers() {
+        return headers;
+    }
+
+    int size() {
+        return columns.length;
+    }
+
+    /**
+     * @return the value of the cell without creating a cell object
+     */
+    String getValue(int column) {
+        return columns[column].getValue(index);
+    }
+
+    TableCell getCell(int column) {
+        return columns[column].getCell(index);
+    }
 
-        return cells.zipWith(normalizedOther.getCells(), comparisonFn)
-                .foldLeft(true, (c1, c2) -> c1 && c2);
+    @Override
+    public String toString() {
+        return "TableRow(cells=" + getCells() + ")";
     }
 }
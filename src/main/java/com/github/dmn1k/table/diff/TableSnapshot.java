@@ -0,0 +1,360 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A persisted copy of a table which a new version of the table can be diffed against
+ * (see {@link TableDiffer#diff(Table, TableSnapshot)}).
+ * The file contains an index of (primary key hash, row fingerprint) pairs sorted by key hash, which is memory mapped,
+ * followed by the encoded rows. The index is merged with the key hashes of the new table in a single sequential
+ * scan and rows are only read from disk for keys whose fingerprints differ, so diffing a table with few changes
+ * costs little more than sorting the key hashes of the new table.
+ * The index is limited to about 89 million rows.
+ */
+public final class TableSnapshot implements Closeable {
+    private static final int MAGIC = 0x54445331;
+    private static final int ENTRY_LONGS = 3;
+    private static final int ENTRY_BYTES = ENTRY_LONGS * Long.BYTES;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final List<TableHeader> headers;
+    private final LongBuffer index;
+    private final int rowCount;
+    private final long rowsPosition;
+
+    private TableSnapshot(FileChannel channel, List<TableHeader> headers, LongBuffer index, int rowCount,
+                          long rowsPosition) {
+        this.channel = channel;
+        this.headers = headers;
+        this.index = index;
+        this.rowCount = rowCount;
+        this.rowsPosition = rowsPosition;
+    }
+
+    /**
+     * Writes a snapshot of the table. An existing snapshot is replaced atomically, so it may still be open
+     * while it is replaced. If several rows share a primary key only the first one is kept
+     *
+     * @param table the table to persist
+     * @param file  the snapshot file
+     * @throws IOException if the file can't be written
+     */
+    public static void write(Table table, Path file) throws IOException {
+        Path absoluteFile = file.toAbsolutePath();
+        Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+        try {
+            writeTo(table, tempFile);
+            Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * @param file a file written by {@link #write(Table, Path)}
+     * @return the opened snapshot, which has to be closed after use
+     * @throws IOException if the file can't be read or is not a snapshot
+     */
+    public static TableSnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a table snapshot");
+            }
+            TableHeader[] headers = new TableHeader[in.readInt()];
+            for (int i = 0; i < headers.length; i++) {
+                String name = in.readUTF();
+                headers[i] = in.readBoolean() ? TableHeader.createPrimaryKey(name) : TableHeader.create(name);
+            }
+            int rowCount = in.readInt();
+            long indexPosition = channel.position();
+            LongBuffer index = channel
+                    .map(FileChannel.MapMode.READ_ONLY, indexPosition, (long) rowCount * ENTRY_BYTES)
+                    .asLongBuffer();
+            return new TableSnapshot(channel, List.of(headers), index, rowCount,
+                    indexPosition + (long) rowCount * ENTRY_BYTES);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<TableHeader> getHeaders() {
+        return headers;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Matches the rows of this snapshot with the rows of a new table version by merging the index with the sorted key
+     * hashes of the new rows. Every entry of the index is visited once. Rows are read at most once and only if their
+     * fingerprint doesn't match a new row with the same key hash
+     *
+     * @param newRows             rows of the new table with distinct primary keys
+     * @param compareFingerprints true if rows with the same key hash and fingerprint are unchanged
+     * @param readDeleted         false to skip rows whose key hash doesn't occur in newRows
+     * @param layout              see {@link #layout(List)}
+     * @return the matches
+     * @throws UncheckedIOException if a row can't be read
+     */
+    Matches match(java.util.List<TableRow> newRows, boolean compareFingerprints, boolean readDeleted, Layout layout) {
+        long[] newKeyHashes = new long[newRows.size()];
+        for (int row = 0; row < newKeyHashes.length; row++) {
+            newKeyHashes[row] = Fingerprints.key(newRows.get(row).primaryKey());
+        }
+        Integer[] newOrder = sortedByKeyHash(newKeyHashes);
+        Matches matches = new Matches(newRows.size());
+
+        int groupStart = 0;
+        for (int entry = 0; entry < rowCount; entry++) {
+            long keyHash = keyHash(entry);
+            while (groupStart < newOrder.length && newKeyHashes[newOrder[groupStart]] < keyHash) {
+                groupStart++;
+            }
+            int groupEnd = groupStart;
+            while (groupEnd < newOrder.length && newKeyHashes[newOrder[groupEnd]] == keyHash) {
+                groupEnd++;
+            }
+            if (groupStart == groupEnd) {
+                if (readDeleted) {
+                    matches.deletedRows.add(readRow(entry, layout));
+                }
+                continue;
+            }
+            if (compareFingerprints && matchFingerprint(entry, newRows, newOrder, groupStart, groupEnd, matches)) {
+                continue;
+            }
+            TableRow oldRow = readRow(entry, layout);
+            if (isKeyOf(oldRow, newRows, newOrder, groupStart, groupEnd)) {
+                matches.oldRows.put(oldRow.primaryKey(), oldRow);
+            } else if (readDeleted) {
+                matches.deletedRows.add(oldRow);
+            }
+        }
+        return matches;
+    }
+
+    private boolean matchFingerprint(int entry, java.util.List<TableRow> newRows, Integer[] newOrder,
+                                     int groupStart, int groupEnd, Matches matches) {
+        long fingerprint = fingerprint(entry);
+        for (int i = groupStart; i < groupEnd; i++) {
+            int row = newOrder[i];
+            TableRow newRow = newRows.get(row);
+            if (!matches.unchanged.get(row) && !newRow.hasMissingCell() && newRow.fingerprint() == fingerprint) {
+                matches.unchanged.set(row);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isKeyOf(TableRow oldRow, java.util.List<TableRow> newRows, Integer[] newOrder,
+                                   int groupStart, int groupEnd) {
+        for (int i = groupStart; i < groupEnd; i++) {
+            if (newRows.get(newOrder[i]).primaryKey().equals(oldRow.primaryKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param targetHeaders the column layout of rows to read
+     * @return the layout which normalizes rows of this snapshot to the target headers
+     */
+    Layout layout(List<TableHeader> targetHeaders) {
+        return new Layout(targetHeaders,
+                targetHeaders.map(headers::indexOf).toJavaStream().mapToInt(i -> i).toArray());
+    }
+
+    /**
+     * @param entry  index of an entry
+     * @param layout see {@link #layout(List)}
+     * @return the row of the entry, normalized to the target headers of the layout
+     * @throws UncheckedIOException if the row can't be read
+     */
+    TableRow readRow(int entry, Layout layout) {
+        try {
+            long position = rowsPosition + index.get(entry * ENTRY_LONGS + 2);
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, position);
+            ByteBuffer row = ByteBuffer.allocate(length.getInt(0));
+            readFully(row, position + Integer.BYTES);
+            Column[] columns = RowCodec.readColumns(new DataInputStream(new ByteArrayInputStream(row.array())));
+
+            int[] columnIndexes = layout.columnIndexes;
+            Column[] normalized = new Column[columnIndexes.length];
+            for (int column = 0; column < columnIndexes.length; column++) {
+                normalized[column] = columnIndexes[column] < 0 ? RecordColumn.MISSING : columns[columnIndexes[column]];
+            }
+            return new TableRow(layout.targetHeaders, normalized, null, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of table snapshot");
+            }
+        }
+    }
+
+    private long keyHash(int entry) {
+        return index.get(entry * ENTRY_LONGS);
+    }
+
+    private long fingerprint(int entry) {
+        return index.get(entry * ENTRY_LONGS + 1);
+    }
+
+    private static void writeTo(Table table, Path file) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeInt(table.getHeaders().size());
+        for (TableHeader tableHeader : table.getHeaders()) {
+            headerOut.writeUTF(tableHeader.getValue());
+            headerOut.writeBoolean(tableHeader.isPrimaryKey());
+        }
+
+        List<TableRow> rows = distinctByPrimaryKey(table.getRows());
+        int rowCount = rows.size();
+        long[] keyHashes = new long[rowCount];
+        long[] fingerprints = new long[rowCount];
+        long[] offsets = new long[rowCount];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(header.size() + Integer.BYTES + (long) rowCount * ENTRY_BYTES);
+            DataOutputStream rowsOut = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE));
+            ByteArrayOutputStream encodedRow = new ByteArrayOutputStream();
+            long offset = 0;
+            int i = 0;
+            for (TableRow row : rows) {
+                encodedRow.reset();
+                RowCodec.write(new DataOutputStream(encodedRow), row);
+                rowsOut.writeInt(encodedRow.size());
+                encodedRow.writeTo(rowsOut);
+
+                keyHashes[i] = Fingerprints.key(row.primaryKey());
+                fingerprints[i] = row.fingerprint();
+                offsets[i] = offset;
+                offset += Integer.BYTES + encodedRow.size();
+                i++;
+            }
+            rowsOut.flush();
+
+            channel.position(0);
+            DataOutputStream indexOut = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE));
+            header.writeTo(indexOut);
+            indexOut.writeInt(rowCount);
+            for (int entry : sortedByKeyHash(keyHashes)) {
+                indexOut.writeLong(keyHashes[entry]);
+                indexOut.writeLong(fingerprints[entry]);
+                indexOut.writeLong(offsets[entry]);
+            }
+            indexOut.flush();
+        }
+    }
+
+    private static List<TableRow> distinctByPrimaryKey(List<TableRow> rows) {
+        Set<PrimaryKey> keys = new HashSet<>();
+        return rows.filter(row -> keys.add(row.primaryKey()));
+    }
+
+    private static Integer[] sortedByKeyHash(long[] keyHashes) {
+        Integer[] entries = new Integer[keyHashes.length];
+        for (int entry = 0; entry < entries.length; entry++) {
+            entries[entry] = entry;
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(keyHashes[a], keyHashes[b]));
+        return entries;
+    }
+
+    /**
+     * Result of {@link #match(java.util.List, boolean, boolean, Layout)}
+     */
+    static final class Matches {
+        private final BitSet unchanged;
+        private final Map<PrimaryKey, TableRow> oldRows = new HashMap<>();
+        private final java.util.List<TableRow> deletedRows = new ArrayList<>();
+
+        private Matches(int newRowCount) {
+            this.unchanged = new BitSet(newRowCount);
+        }
+
+        /**
+         * @param newRow index of a new row
+         * @return true if the new row has the same fingerprint as its row in the snapshot
+         */
+        boolean isUnchanged(int newRow) {
+            return unchanged.get(newRow);
+        }
+
+        /**
+         * @param key primary key of a new row which is not unchanged
+         * @return the row of the snapshot with the same key or null if there is none
+         */
+        TableRow oldRow(PrimaryKey key) {
+            return oldRows.get(key);
+        }
+
+        /**
+         * @return the rows of the snapshot whose keys don't exist in the new table, in index order
+         */
+        java.util.List<TableRow> deletedRows() {
+            return deletedRows;
+        }
+    }
+
+    /**
+     * Target headers of rows read from a snapshot and, for each of them, the index of the column in the snapshot
+     * or -1 if it doesn't exist
+     */
+    static final class Layout {
+        private final List<TableHeader> targetHeaders;
+        private final int[] columnIndexes;
+
+        private Layout(List<TableHeader> targetHeaders, int[] columnIndexes) {
+            this.targetHeaders = targetHeaders;
+            this.columnIndexes = columnIndexes;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.dmn1k.table.diff;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the distinct values of low-cardinality columns (status codes, country codes, booleans, ...) to int codes.
+ * Dictionary encoded columns store one int per cell instead of a String, and every distinct value is held
+ * only once. Cells of columns encoded with the same dictionary are compared by their codes.
+ * Encoding is thread-safe, so one dictionary can be shared by tables which are built concurrently. Values which are
+ * already part of the dictionary are encoded without locking.
+ */
+public final class ValueDictionary {
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Key of null values, which {@link ConcurrentHashMap} doesn't support
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * Only contains codes whose value and hash have already been stored
+     */
+    private final Map<Object, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private volatile long[] hashes = new long[INITIAL_CAPACITY];
+
+    public static ValueDictionary create() {
+        return new ValueDictionary();
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * @param value any value, may be null
+     * @return the code of the value, a new code is assigned if the value is not yet part of the dictionary
+     */
+    int encode(String value) {
+        Object key = value == null ? NULL_VALUE : value;
+        Integer code = codes.get(key);
+        return code != null ? code : add(key, value);
+    }
+
+    private synchronized int add(Object key, String value) {
+        Integer code = codes.get(key);
+        if (code != null) {
+            return code;
+        }
+
+        int newCode = codes.size();
+        if (newCode == values.length) {
+            hashes = Arrays.copyOf(hashes, newCode * 2);
+            values = Arrays.copyOf(values, newCode * 2);
+        }
+        hashes[newCode] = Fingerprints.hash(value);
+        values[newCode] = value;
+        codes.put(key, newCode);
+        return newCode;
+    }
+
+    /**
+     * @param code a code returned by {@link #encode(String)}
+     * @return the value of the code
+     */
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * @param code a code returned by {@link #encode(String)}
+     * @return the hash of the value (see {@link Fingerprints#hash(String)}), computed once per distinct value
+     */
+    long hash(int code) {
+        return hashes[code];
+    }
+}
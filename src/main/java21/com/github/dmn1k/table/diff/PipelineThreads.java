@@ -0,0 +1,22 @@
+package com.github.dmn1k.table.diff;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads which run the stages of a {@link DiffPipeline}.
+ * This version, used on Java 21+, creates virtual threads
+ */
+final class PipelineThreads {
+    private static final AtomicInteger PIPELINE_COUNT = new AtomicInteger();
+
+    private PipelineThreads() {
+        // static class
+    }
+
+    static ThreadFactory factory() {
+        return Thread.ofVirtual()
+                .name("table-diff-pipeline-" + PIPELINE_COUNT.incrementAndGet() + "-", 1)
+                .factory();
+    }
+}
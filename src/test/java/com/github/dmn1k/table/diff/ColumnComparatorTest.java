@@ -0,0 +1,133 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnComparatorTest {
+    private final Table header = Table.create(
+            TableHeader.createPrimaryKey("id"),
+            TableHeader.create("value")
+    );
+
+    @DisplayName("compares numbers with a tolerance")
+    @Test
+    void comparesNumbers() {
+        Table newTable = header
+                .addRow("1", "1").addRow("2", "1.50").addRow("3", "9007199254740993")
+                .addRow("4", "0.1001").addRow("5", "n/a").addRow("6", "n/a").addRow("7", null);
+        Table oldTable = header
+                .addRow("1", "1.0").addRow("2", "1.5").addRow("3", "9007199254740992")
+                .addRow("4", "0.1").addRow("5", "n/a").addRow("6", "0").addRow("7", null);
+
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.numeric(0)),
+                newTable, oldTable))
+                .containsExactly(DiffType.Unchanged, DiffType.Unchanged, DiffType.Changed,
+                        DiffType.Changed, DiffType.Unchanged, DiffType.Changed, DiffType.Unchanged);
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.numeric(0.001)),
+                newTable, oldTable).get(3))
+                .isEqualTo(DiffType.Unchanged);
+    }
+
+    @DisplayName("compares the instants of timestamps")
+    @Test
+    void comparesTimestamps() {
+        Table newTable = header
+                .addRow("1", "2018-01-01T10:00:00+01:00").addRow("2", "2018-01-01T10:00:00")
+                .addRow("3", "2018-01-01T10:00:00.5Z");
+        Table oldTable = header
+                .addRow("1", "2018-01-01T09:00Z").addRow("2", "2018-01-01T10:00Z")
+                .addRow("3", "2018-01-01T10:00:00Z");
+
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.timestamp()),
+                newTable, oldTable))
+                .containsExactly(DiffType.Unchanged, DiffType.Unchanged, DiffType.Changed);
+    }
+
+    @DisplayName("ignores case and whitespace of Strings")
+    @Test
+    void comparesText() {
+        Table newTable = header.addRow("1", "Abc").addRow("2", " abc ").addRow("3", " ABC");
+        Table oldTable = header.addRow("1", "aBC").addRow("2", "abc").addRow("3", "abc");
+
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.caseInsensitive()),
+                newTable, oldTable))
+                .containsExactly(DiffType.Unchanged, DiffType.Changed, DiffType.Changed);
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.trimmed()),
+                newTable, oldTable))
+                .containsExactly(DiffType.Changed, DiffType.Unchanged, DiffType.Changed);
+        assertThat(diffTypes(new TableDiffer().withColumnComparator("value", ColumnComparator.trimmedCaseInsensitive()),
+                newTable, oldTable))
+                .containsExactly(DiffType.Unchanged, DiffType.Unchanged, DiffType.Unchanged);
+    }
+
+    @DisplayName("leaves missing cells to the column comparison strategy")
+    @Test
+    void leavesMissingCellsToStrategy() {
+        Table newTable = header.addRow("1").addRow("2", "2");
+        Table oldTable = header.addRow("1", "1").addRow("2", "2.0");
+        TableDiffer tableDiffer = new TableDiffer()
+                .withColumnComparator("value", ColumnComparator.numeric(0))
+                .withColumnComparisonStrategy(ColumnComparisonStrategies.IGNORE_ALL_MISSING_COLUMNS);
+
+        assertThat(diffTypes(tableDiffer, newTable, oldTable))
+                .containsExactly(DiffType.Unchanged, DiffType.Unchanged);
+        assertThat(diffTypes(tableDiffer.withColumnComparisonStrategy(ColumnComparisonStrategies.CONSIDER_MISSING_COLUMNS_AS_CHANGE),
+                newTable, oldTable))
+                .containsExactly(DiffType.Changed, DiffType.Unchanged);
+    }
+
+    @DisplayName("is also used for sorted streams")
+    @Test
+    void isUsedForSortedStreams() {
+        Table newTable = header.addRow("1", "1.0");
+        Table oldTable = header.addRow("1", "1");
+
+        assertThat(new TableDiffer()
+                .withColumnComparator("value", ColumnComparator.numeric(0))
+                .diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                .map(TableDiffResult::getDiffType)
+                .toList())
+                .containsExactly(DiffType.Unchanged);
+    }
+
+    @DisplayName("is also used for rows spilled to disk")
+    @Test
+    void isUsedForSpilledRows() {
+        Table newTable = header.addRow("2", "b").addRow("1", "A");
+        Table oldTable = header.addRow("1", "a").addRow("2", "B");
+        TableDiffer tableDiffer = new TableDiffer().withColumnComparator("value", ColumnComparator.caseInsensitive());
+
+        for (TableDiffer differ : List.of(tableDiffer, tableDiffer.withMemoryBudget(2))) {
+            assertThat(differ.diffUnsorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                    .map(TableDiffResult::getDiffType)
+                    .toList())
+                    .containsExactly(DiffType.Unchanged, DiffType.Unchanged);
+        }
+    }
+
+    @DisplayName("fails for rows without headers")
+    @Test
+    void failsForRowsWithoutHeaders() {
+        TableRow row = TableRow.create(List.of(TableCell.create("1", true), TableCell.create("a", false)));
+
+        assertThatThrownBy(() -> new TableDiffer()
+                .withColumnComparator("value", ColumnComparator.caseInsensitive())
+                .diffSorted(List.of(row).iterator(), List.of(row).iterator())
+                .toList())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @DisplayName("fails for a negative tolerance")
+    @Test
+    void failsForNegativeTolerance() {
+        assertThatThrownBy(() -> ColumnComparator.numeric(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<DiffType> diffTypes(TableDiffer tableDiffer, Table newTable, Table oldTable) {
+        return tableDiffer.diff(newTable, oldTable).map(TableDiffResult::getDiffType);
+    }
+}
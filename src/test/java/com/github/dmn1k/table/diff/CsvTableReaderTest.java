@@ -0,0 +1,131 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvTableReaderTest {
+    @DisplayName("reads headers and rows including quoted fields")
+    @Test
+    void readsQuotedFields() throws IOException {
+        Table table = CsvTableReader.csv()
+                .withPrimaryKeys("id")
+                .read(input("id,name,comment\r\n1,\"Doe, John\",\"said \"\"hi\"\"\"\r\n2,Ünal,\"multi\nline\"\r\n"));
+
+        assertThat(table.getHeaders()).containsExactly(
+                TableHeader.createPrimaryKey("id"),
+                TableHeader.create("name"),
+                TableHeader.create("comment")
+        );
+        assertThat(values(table)).containsExactly(
+                List.of("1", "Doe, John", "said \"hi\""),
+                List.of("2", "Ünal", "multi\nline")
+        );
+    }
+
+    @DisplayName("adjusts rows to the header count and keeps empty fields")
+    @Test
+    void adjustsRowsToHeaderCount() throws IOException {
+        Table table = CsvTableReader.csv().read(input("a,b,c\n1,,3,4\n5\n\n"));
+
+        assertThat(table.getRows().map(TableRow::getCells)).containsExactly(
+                List.of(TableCell.create("1", false), TableCell.create("", false), TableCell.create("3", false)),
+                List.of(TableCell.create("5", false), TableCell.MISSING_CELL, TableCell.MISSING_CELL)
+        );
+    }
+
+    @DisplayName("reads tab separated values")
+    @Test
+    void readsTsv() throws IOException {
+        Table table = CsvTableReader.tsv().read(input("a\tb\n\"1\"\t2"));
+
+        assertThat(values(table)).containsExactly(List.of("\"1\"", "2"));
+    }
+
+    @DisplayName("reads Latin-1 bytes above 127 which aren't quotes or delimiters")
+    @Test
+    void readsLatin1Bytes() throws IOException {
+        Table table = CsvTableReader.tsv().withCharset(StandardCharsets.ISO_8859_1)
+                .read(new ByteArrayInputStream("a\tb\n\u00ff\t2\n".getBytes(StandardCharsets.ISO_8859_1)));
+
+        assertThat(values(table)).containsExactly(List.of("\u00ff", "2"));
+        assertThatThrownBy(() -> CsvTableReader.csv().withDelimiter('\u00ff'))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CsvTableReader.csv().withQuote('\u00ab'))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @DisplayName("reads gzip compressed files")
+    @Test
+    void readsGzipFiles() throws IOException {
+        Path file = Files.createTempFile("table-diff-test", ".csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("id,value\n1,a\n2,b\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            Table table = CsvTableReader.csv().withPrimaryKeys("id").read(file);
+
+            assertThat(values(table)).containsExactly(List.of("1", "a"), List.of("2", "b"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @DisplayName("creates tables which can be diffed")
+    @Test
+    void createsDiffableTables() throws IOException {
+        Path newFile = Files.createTempFile("table-diff-test", ".csv");
+        Files.write(newFile, "id,value\n1,a\n2,b\n".getBytes(StandardCharsets.UTF_8));
+        CsvTableReader reader = CsvTableReader.csv().withPrimaryKeys("id");
+
+        try {
+            List<TableDiffResult> result = new TableDiffer().diff(
+                    reader.read(newFile),
+                    reader.read(input("value,id\na,1\nc,2\n")));
+
+            assertThat(result).extracting(TableDiffResult::getDiffType)
+                    .containsExactly(DiffType.Unchanged, DiffType.Changed);
+        } finally {
+            Files.delete(newFile);
+        }
+    }
+
+    @DisplayName("encodes dictionary columns")
+    @Test
+    void encodesDictionaryColumns() throws IOException {
+        ValueDictionary dictionary = ValueDictionary.create();
+        CsvTableReader reader = CsvTableReader.csv().withPrimaryKeys("id").withDictionary(dictionary, "status");
+
+        Table table = reader.read(input("id,status\n1,OK\n2,OK\n3,FAILED\n"));
+
+        assertThat(values(table)).containsExactly(List.of("1", "OK"), List.of("2", "OK"), List.of("3", "FAILED"));
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @DisplayName("fails if a primary key column doesn't exist")
+    @Test
+    void failsForUnknownPrimaryKey() {
+        assertThatThrownBy(() -> CsvTableReader.csv().withPrimaryKeys("id").read(input("a,b\n1,2\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<List<String>> values(Table table) {
+        return table.getRows().map(row -> row.getCells().map(TableCell::getValue));
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiffMetricsTest {
+    private final Table header = Table.create(
+            TableHeader.createPrimaryKey("id"),
+            TableHeader.create("value")
+    );
+    private final Table newTable = header.addRow("1", "a").addRow("2", "b").addRow("3", "c");
+    private final Table oldTable = header.addRow("1", "a").addRow("2", "x").addRow("4", "d");
+
+    @DisplayName("reports the phases and counts of an in-memory diff")
+    @Test
+    void reportsInMemoryDiff() {
+        RecordingListener listener = new RecordingListener();
+
+        new TableDiffer().withMetricsListener(listener).diff(newTable, oldTable);
+
+        assertThat(listener.phases).containsExactly(DiffPhase.HEADER_SUPERSET, DiffPhase.NORMALIZATION,
+                DiffPhase.KEY_EXTRACTION, DiffPhase.MATCHING, DiffPhase.SORTING, DiffPhase.COMPARISON);
+        assertThat(listener.completed).hasSize(1);
+        DiffMetrics metrics = listener.completed.get(0);
+        assertThat(metrics.getRowCount()).isEqualTo(6);
+        assertThat(metrics.getCount(DiffType.Unchanged)).isEqualTo(1);
+        assertThat(metrics.getCount(DiffType.Changed)).isEqualTo(1);
+        assertThat(metrics.getCount(DiffType.New)).isEqualTo(1);
+        assertThat(metrics.getCount(DiffType.Deleted)).isEqualTo(1);
+        assertThat(metrics.getPhaseNanos().values().sum().longValue()).isLessThanOrEqualTo(metrics.getTotalNanos());
+    }
+
+    @DisplayName("only counts results of the selected diff-types")
+    @Test
+    void countsSelectedDiffTypes() {
+        RecordingListener listener = new RecordingListener();
+
+        new TableDiffer().withMetricsListener(listener).withDiffTypes(DiffType.Changed).withParallelism(2)
+                .diff(newTable, oldTable);
+
+        DiffMetrics metrics = listener.completed.get(0);
+        assertThat(metrics.getCount(DiffType.Changed)).isEqualTo(1);
+        assertThat(metrics.getCount(DiffType.Unchanged)).isZero();
+    }
+
+    @DisplayName("completes a streaming diff once its results are exhausted")
+    @Test
+    void completesStreamingDiff() {
+        RecordingListener listener = new RecordingListener();
+
+        Iterator<TableDiffResult> results = new TableDiffer().withMetricsListener(listener)
+                .diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator());
+        results.next();
+        assertThat(listener.completed).isEmpty();
+        results.toList();
+
+        assertThat(listener.completed).hasSize(1);
+        assertThat(listener.completed.get(0).getCount(DiffType.Deleted)).isEqualTo(1);
+        assertThat(listener.completed.get(0).getRowCount()).isEqualTo(6);
+    }
+
+    @DisplayName("measures the sort phase of unsorted streams")
+    @Test
+    void measuresSortPhase() {
+        RecordingListener listener = new RecordingListener();
+
+        List<TableDiffResult> results = new TableDiffer().withMetricsListener(listener)
+                .diffUnsorted(newTable.getRows().reverse().iterator(), oldTable.getRows().iterator())
+                .toList();
+
+        assertThat(results).hasSize(4);
+        assertThat(listener.phases).containsExactly(DiffPhase.SORTING);
+        assertThat(listener.completed.get(0).getTotalNanos()).isPositive();
+    }
+
+    private static final class RecordingListener implements DiffMetricsListener {
+        private final java.util.List<DiffPhase> phases = new ArrayList<>();
+        private final java.util.List<DiffMetrics> completed = new ArrayList<>();
+
+        @Override
+        public void onPhase(DiffPhase phase, long durationNanos) {
+            phases.add(phase);
+        }
+
+        @Override
+        public void onDiffCompleted(DiffMetrics metrics) {
+            completed.add(metrics);
+        }
+    }
+}
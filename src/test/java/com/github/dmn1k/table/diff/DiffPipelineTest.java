@@ -0,0 +1,82 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.Iterator;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiffPipelineTest {
+    private final TableDiffer tableDiffer = new TableDiffer();
+    private final Table newTable = table(0, 3);
+    private final Table oldTable = table(100, 4);
+
+    @DisplayName("creates the same results as a diff without pipeline")
+    @Test
+    void createsSameResults() {
+        DiffPipeline pipeline = DiffPipeline.create(tableDiffer).withBatchSize(7).withQueueCapacity(1);
+        java.util.List<TableDiffResult> sorted = new ArrayList<>();
+        java.util.List<TableDiffResult> unsorted = new ArrayList<>();
+
+        pipeline.diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator(), sorted::add);
+        pipeline.diffUnsorted(newTable.getRows().reverse().iterator(), oldTable.getRows().iterator(), unsorted::add);
+
+        String expected = tableDiffer.diff(newTable, oldTable).toString();
+        assertThat(List.ofAll(sorted).toString()).isEqualTo(expected);
+        assertThat(List.ofAll(unsorted).toString()).isEqualTo(expected);
+    }
+
+    @DisplayName("keeps the readers at most a few batches ahead of the sink")
+    @Test
+    void appliesBackpressure() {
+        AtomicInteger readRows = new AtomicInteger();
+        AtomicInteger maxLead = new AtomicInteger();
+        AtomicInteger passedResults = new AtomicInteger();
+
+        DiffPipeline.create(tableDiffer).withBatchSize(1).withQueueCapacity(1).diffSorted(
+                newTable.getRows().iterator().peek(row -> readRows.incrementAndGet()),
+                Iterator.empty(),
+                result -> {
+                    maxLead.accumulateAndGet(readRows.get() - passedResults.incrementAndGet(), Math::max);
+                    Thread.yield();
+                });
+
+        assertThat(passedResults.get()).isEqualTo(newTable.rowCount());
+        assertThat(maxLead.get()).isLessThanOrEqualTo(10);
+    }
+
+    @DisplayName("rethrows the first failure after stopping all stages")
+    @Test
+    void rethrowsFailures() {
+        DiffPipeline pipeline = DiffPipeline.create(tableDiffer).withBatchSize(2).withQueueCapacity(1);
+        java.util.Iterator<TableRow> failingRows = newTable.getRows().iterator().map(row -> {
+            if (row.primaryKey().equals(PrimaryKey.of("010"))) {
+                throw new IllegalStateException("Could not read row");
+            }
+            return row;
+        });
+
+        assertThatThrownBy(() -> pipeline.diffSorted(failingRows, oldTable.getRows().iterator(), result -> {
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Could not read row");
+        assertThatThrownBy(() -> pipeline.diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator(),
+                result -> {
+                    throw new UnsupportedOperationException("Sink failed");
+                }))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Table table(int offset, int changeEvery) {
+        TableBuilder builder = Table.builder(TableHeader.createPrimaryKey("id"), TableHeader.create("value"));
+        for (int id = offset; id < offset + 300; id++) {
+            builder.addRow(String.format("%03d", id), id % changeEvery == 0 ? "changed-" + changeEvery : "value");
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.HashSet;
+import io.vavr.collection.List;
+import io.vavr.collection.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the packaged jar (mvn verify on JDK 21+). Its Java 8 classes have to run on Java 8 even if the jar
+ * was built on a newer JDK. Runs on a Java 8 runtime if java8.home is set
+ */
+class Java8CompatibilityIT {
+    private static final int JAVA_8_MAJOR_VERSION = 52;
+    /**
+     * Methods of java.nio.Buffer which subclasses override with covariant return types since Java 9
+     */
+    private static final Set<String> COVARIANT_BUFFER_METHODS =
+            HashSet.of("position", "limit", "mark", "reset", "clear", "flip", "rewind");
+
+    @DisplayName("only calls methods of the Java 8 API")
+    @Test
+    void onlyCallsJava8Api() throws Exception {
+        Path jar = Paths.get(TableDiffer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        java.util.List<String> violations = new ArrayList<>();
+
+        assertThat(jar.toString()).endsWith(".jar");
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class") && !entry.getName().startsWith("META-INF/")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        violations.addAll(java9Usages(entry.getName(), in));
+                    }
+                }
+            }
+        }
+
+        assertThat(violations).isEmpty();
+    }
+
+    @DisplayName("reads, writes and diffs tables")
+    @Test
+    void readsWritesAndDiffsTables() throws IOException {
+        Table oldTable = CsvTableReader.csv().withPrimaryKeys("id")
+                .read(new ByteArrayInputStream("id,name\n1,Ann\n2,Bob\n3,Cid\n".getBytes(StandardCharsets.UTF_8)));
+        Table newTable = CsvTableReader.csv().withPrimaryKeys("id")
+                .read(new ByteArrayInputStream("id,name\n3,Cy\n1,Ann\n4,Dan\n".getBytes(StandardCharsets.UTF_8)));
+        String expected = new TableDiffer().diff(newTable, oldTable).toString();
+        Path tableFile = Files.createTempFile("table-diff-it", ".table");
+        Path snapshotFile = Files.createTempFile("table-diff-it", ".snapshot");
+        try {
+            TableFile.write(oldTable, tableFile);
+            TableSnapshot.write(oldTable, snapshotFile);
+
+            assertThat(new TableDiffer().diff(newTable, TableFile.open(tableFile).getTable()).toString())
+                    .isEqualTo(expected);
+            try (TableSnapshot snapshot = TableSnapshot.open(snapshotFile)) {
+                assertThat(new TableDiffer().diff(newTable, snapshot).toString()).isEqualTo(expected);
+            }
+            assertThat(new TableDiffer().withMemoryBudget(2)
+                    .diffUnsorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                    .toList().toString())
+                    .isEqualTo(expected);
+        } finally {
+            Files.delete(tableFile);
+            Files.delete(snapshotFile);
+        }
+    }
+
+    /**
+     * @return the usages of APIs which don't exist on Java 8, found in the constant pool of the class file
+     */
+    private static java.util.List<String> java9Usages(String name, InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(classFile);
+        in.readInt();
+        in.readUnsignedShort();
+        int majorVersion = in.readUnsignedShort();
+        if (majorVersion > JAVA_8_MAJOR_VERSION) {
+            return List.of(name + " has class file version " + majorVersion).toJavaList();
+        }
+
+        int constantCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantCount];
+        int[] first = new int[constantCount];
+        int[] second = new int[constantCount];
+        java.util.List<Integer> methodRefs = new ArrayList<>();
+        for (int constant = 1; constant < constantCount; constant++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[constant] = in.readUTF();
+                    break;
+                case 3:
+                case 4:
+                    in.readInt();
+                    break;
+                case 5:
+                case 6:
+                    in.readLong();
+                    constant++;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    first[constant] = in.readUnsignedShort();
+                    break;
+                case 15:
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                default:
+                    first[constant] = in.readUnsignedShort();
+                    second[constant] = in.readUnsignedShort();
+                    if (tag == 10) {
+                        methodRefs.add(constant);
+                    }
+            }
+        }
+
+        java.util.List<String> usages = new ArrayList<>();
+        for (int methodRef : methodRefs) {
+            String owner = utf8[first[first[methodRef]]];
+            String method = utf8[first[second[methodRef]]];
+            String descriptor = utf8[second[second[methodRef]]];
+            if (owner.startsWith("java/nio/") && owner.endsWith("Buffer") && !owner.equals("java/nio/Buffer")
+                    && COVARIANT_BUFFER_METHODS.contains(method) && descriptor.endsWith(")L" + owner + ";")) {
+                usages.add(name + " calls " + owner + "." + method + descriptor);
+            }
+        }
+        return usages;
+    }
+}
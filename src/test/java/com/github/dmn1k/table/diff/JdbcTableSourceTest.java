@@ -0,0 +1,103 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcTableSourceTest {
+    private Connection connection;
+
+    @BeforeEach
+    void createTables() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE NEW_CUSTOMERS (ID VARCHAR(10) PRIMARY KEY, NAME VARCHAR(50), CITY VARCHAR(50))");
+            statement.execute("CREATE TABLE OLD_CUSTOMERS (CITY VARCHAR(50), ID VARCHAR(10) PRIMARY KEY, NAME VARCHAR(50))");
+            statement.execute("INSERT INTO NEW_CUSTOMERS VALUES ('1', 'Ann', 'Berlin'), ('2', 'Bob', NULL), "
+                    + "('3', 'Cid', 'Paris'), ('5', 'Eve', 'Rome'), ('6', 'Fay', 'Oslo')");
+            statement.execute("INSERT INTO OLD_CUSTOMERS VALUES ('Berlin', '1', 'Ann'), (NULL, '2', 'Bob'), "
+                    + "('Madrid', '3', 'Cid'), ('Lyon', '4', 'Dan'), ('Oslo', '6', 'Fay')");
+        }
+    }
+
+    @AfterEach
+    void closeConnection() throws SQLException {
+        connection.close();
+    }
+
+    @DisplayName("reads a result set into a table")
+    @Test
+    void readsResultSet() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM NEW_CUSTOMERS ORDER BY ID")) {
+            Table table = JdbcTableSource.create().withPrimaryKeys("ID").read(resultSet);
+
+            assertThat(table.getHeaders()).containsExactly(
+                    TableHeader.createPrimaryKey("ID"),
+                    TableHeader.create("NAME"),
+                    TableHeader.create("CITY")
+            );
+            assertThat(table.getRows()).hasSize(5);
+            assertThat(table.getRows().get(1).getCells().last()).isEqualTo(TableCell.create(null, false));
+        }
+    }
+
+    @DisplayName("streams and diffs result sets ordered by primary key in batches")
+    @Test
+    void diffsOrderedResultSets() throws SQLException {
+        JdbcTableSource source = JdbcTableSource.create().withPrimaryKeys("ID").withFetchSize(2);
+        TableDiffer tableDiffer = new TableDiffer();
+
+        try (Statement newStatement = connection.createStatement();
+             Statement oldStatement = connection.createStatement();
+             ResultSet newRows = newStatement.executeQuery("SELECT * FROM NEW_CUSTOMERS ORDER BY ID");
+             ResultSet oldRows = oldStatement.executeQuery("SELECT * FROM OLD_CUSTOMERS ORDER BY ID")) {
+            List<TableDiffResult> result = source.diffSorted(tableDiffer, newRows, oldRows).toList();
+
+            assertThat(result).extracting(TableDiffResult::getDiffType).containsExactly(
+                    DiffType.Unchanged, DiffType.Unchanged, DiffType.Changed, DiffType.Deleted, DiffType.New,
+                    DiffType.Unchanged);
+            assertThat(result.get(2).getChangedHeaders()).containsExactly(TableHeader.create("CITY"));
+        }
+    }
+
+    @DisplayName("fails while diffing result sets whose order differs from the order of primary keys")
+    @Test
+    void failsForNumericOrder() throws SQLException {
+        JdbcTableSource source = JdbcTableSource.create().withPrimaryKeys("ID");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE NUMBERS (ID INT PRIMARY KEY)");
+            statement.execute("INSERT INTO NUMBERS VALUES (9), (10)");
+        }
+        try (Statement newStatement = connection.createStatement();
+             Statement oldStatement = connection.createStatement();
+             ResultSet newRows = newStatement.executeQuery("SELECT * FROM NUMBERS ORDER BY ID");
+             ResultSet oldRows = oldStatement.executeQuery("SELECT * FROM NUMBERS ORDER BY CAST(ID AS VARCHAR)")) {
+            assertThatThrownBy(() -> source.diffSorted(new TableDiffer(), newRows, oldRows).toList())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("not sorted by primary key");
+        }
+    }
+
+    @DisplayName("fails if a primary key column doesn't exist")
+    @Test
+    void failsForUnknownPrimaryKey() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT NAME FROM NEW_CUSTOMERS")) {
+            assertThatThrownBy(() -> JdbcTableSource.create().withPrimaryKeys("ID").read(resultSet))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs against the multi-release jar built by the java21 profile (mvn verify on JDK 21+). Skipped on older runtimes,
+ * which use the Java 8 classes of the jar
+ */
+class PipelineThreadsIT {
+    @DisplayName("creates virtual threads on Java 21+")
+    @Test
+    void createsVirtualThreads() throws Exception {
+        String javaVersion = System.getProperty("java.specification.version");
+        assumeTrue(!javaVersion.startsWith("1.") && Integer.parseInt(javaVersion) >= 21,
+                "Virtual threads require Java 21+");
+        Thread thread = PipelineThreads.factory().newThread(() -> {
+        });
+
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+        assertThat(thread.getName()).startsWith("table-diff-pipeline-");
+    }
+
+    @DisplayName("diffs on virtual threads like without pipeline")
+    @Test
+    void diffsOnVirtualThreads() {
+        TableBuilder newTable = Table.builder(TableHeader.createPrimaryKey("id"), TableHeader.create("value"));
+        TableBuilder oldTable = Table.builder(TableHeader.createPrimaryKey("id"), TableHeader.create("value"));
+        for (int id = 0; id < 1000; id++) {
+            newTable.addRow(String.format("%04d", id), id % 3 == 0 ? "changed" : "value");
+            oldTable.addRow(String.format("%04d", id + 100), "value");
+        }
+        Table expectedNew = newTable.build();
+        Table expectedOld = oldTable.build();
+        java.util.List<TableDiffResult> results = new ArrayList<>();
+
+        DiffPipeline.create(new TableDiffer()).withBatchSize(16)
+                .diffSorted(expectedNew.getRows().iterator(), expectedOld.getRows().iterator(), results::add);
+
+        assertThat(List.ofAll(results).toString())
+                .isEqualTo(new TableDiffer().diff(expectedNew, expectedOld).toString());
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowCodecTest {
+    private final TableRow row = TableRow.create(List.of(
+            TableCell.create("1", true),
+            TableCell.create("Grüße", false),
+            TableCell.create(null, false),
+            TableCell.MISSING_CELL,
+            TableCell.create("", false)));
+
+    @DisplayName("decodes rows lazily with the same cells and key")
+    @Test
+    void decodesLazily() throws IOException {
+        TableRow decoded = roundTrip(row);
+
+        assertThat(decoded.primaryKey()).isEqualTo(PrimaryKey.of("1"));
+        assertThat(decoded.getCells()).isEqualTo(row.getCells());
+        assertThat(decoded.toString()).isEqualTo(row.toString());
+    }
+
+    @DisplayName("compares decoded rows with encoded and plain rows")
+    @Test
+    void comparesDecodedRows() throws IOException {
+        TableRow changed = TableRow.create(row.getCells().update(1, TableCell.create("Grüsse", false)));
+
+        for (ColumnComparisonStrategy strategy : List.of(ColumnComparisonStrategies.CONSIDER_MISSING_COLUMNS_AS_CHANGE,
+                ColumnComparisonStrategies.IGNORE_ALL_MISSING_COLUMNS)) {
+            assertThat(roundTrip(row).isSameAs(roundTrip(row), strategy)).isEqualTo(row.isSameAs(row, strategy));
+            assertThat(roundTrip(row).isSameAs(row, strategy)).isEqualTo(row.isSameAs(row, strategy));
+            assertThat(roundTrip(row).isSameAs(roundTrip(changed), strategy)).isFalse();
+            assertThat(roundTrip(row).changedColumns(roundTrip(changed), strategy))
+                    .isEqualTo(row.changedColumns(changed, strategy));
+        }
+    }
+
+    private static TableRow roundTrip(TableRow row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RowCodec.write(new DataOutputStream(bytes), row);
+        return RowCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import io.vavr.control.Option;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardedDiffTest {
+    private final TableDiffer tableDiffer = new TableDiffer();
+    private final Table newTable = table(0, 3);
+    private final Table oldTable = table(50, 4);
+
+    @DisplayName("merges the results of hash shards diffed by concurrent workers")
+    @Test
+    void mergesHashShards() throws Exception {
+        ShardSpec spec = ShardSpec.hash(4);
+        ExecutorService workers = Executors.newFixedThreadPool(spec.getShardCount());
+        try {
+            java.util.List<Future<byte[]>> encodedResults = new java.util.ArrayList<>();
+            java.util.List<Future<DiffSummary>> summaries = new java.util.ArrayList<>();
+            for (int shard = 0; shard < spec.getShardCount(); shard++) {
+                int index = shard;
+                encodedResults.add(workers.submit(() -> encode(tableDiffer.diff(
+                        spec.select(newTable, index), spec.select(oldTable, index)))));
+                summaries.add(workers.submit(() -> tableDiffer.summarize(
+                        Option.of(spec.select(newTable, index)), Option.of(spec.select(oldTable, index)), 3)));
+            }
+
+            List<TableDiffResult> merged = ShardedDiff.merge(List.ofAll(encodedResults).map(ShardedDiffTest::decode))
+                    .toList();
+            DiffSummary mergedSummary = ShardedDiff.mergeSummaries(List.ofAll(summaries).map(ShardedDiffTest::get));
+
+            assertThat(merged.toString()).isEqualTo(tableDiffer.diff(newTable, oldTable).toString());
+            assertThat(merged.map(TableDiffResult::getChangedHeaders))
+                    .isEqualTo(tableDiffer.diff(newTable, oldTable).map(TableDiffResult::getChangedHeaders));
+            assertThat(mergedSummary).isEqualTo(tableDiffer.summarize(Option.of(newTable), Option.of(oldTable), 3));
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    @DisplayName("assigns keys to range shards")
+    @Test
+    void assignsRangeShards() {
+        ShardSpec spec = ShardSpec.ranges(PrimaryKey.of("100"), PrimaryKey.of("150"));
+
+        assertThat(spec.getShardCount()).isEqualTo(3);
+        assertThat(List.of("099", "100", "149", "150", "199").map(key -> spec.shardOf(PrimaryKey.of(key))))
+                .containsExactly(0, 1, 1, 2, 2);
+
+        List<TableDiffResult> merged = ShardedDiff.merge(List.range(0, spec.getShardCount())
+                .map(shard -> tableDiffer.diffSorted(
+                        spec.select(newTable.getRows().iterator(), shard),
+                        spec.select(oldTable.getRows().iterator(), shard))))
+                .toList();
+        assertThat(merged.toString()).isEqualTo(tableDiffer.diff(newTable, oldTable).toString());
+    }
+
+    @DisplayName("rejects invalid shard specs")
+    @Test
+    void rejectsInvalidSpecs() {
+        assertThatThrownBy(() -> ShardSpec.hash(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardSpec.ranges(PrimaryKey.of("b"), PrimaryKey.of("a")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardSpec.hash(2).select(newTable, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardedDiff.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static Table table(int offset, int changeEvery) {
+        TableBuilder builder = Table.builder(TableHeader.createPrimaryKey("id"), TableHeader.create("value"));
+        for (int id = offset; id < offset + 150; id++) {
+            builder.addRow(String.format("%03d", id), id % changeEvery == 0 ? "changed-" + changeEvery : "value");
+        }
+        return builder.build();
+    }
+
+    private static byte[] encode(List<TableDiffResult> results) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ShardedDiff.write(results.iterator(), out);
+        return out.toByteArray();
+    }
+
+    private static java.util.Iterator<TableDiffResult> decode(Future<byte[]> encoded) {
+        try {
+            return ShardedDiff.read(new ByteArrayInputStream(get(encoded)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableBuilderTest {
+    @DisplayName("builds the same table as repeatedly calling addRow")
+    @Test
+    void buildsSameTableAsAddRow() {
+        Table header = Table.create(
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("y")
+        );
+
+        Table built = Table.builder(header.getHeaders())
+                .addRow("a", "1")
+                .addRows(Arrays.asList(new String[]{"b", "2"}, new String[]{"c", "3"}))
+                .build();
+
+        assertThat(built.toString()).isEqualTo(header
+                .addRow("a", "1")
+                .addRow("b", "2")
+                .addRow("c", "3")
+                .toString());
+    }
+
+    @DisplayName("adjusts rows to the header count")
+    @Test
+    void adjustsRowsToHeaderCount() {
+        Table table = Table.builder(TableHeader.createPrimaryKey("x"), TableHeader.create("y"))
+                .addRow("a")
+                .addRow("b", "2", "3")
+                .build();
+
+        assertThat(table.getRows())
+                .extracting(r -> r.getCells().size())
+                .containsExactly(2, 2);
+        assertThat(table.getRows().head().getCells().last()).isEqualTo(TableCell.MISSING_CELL);
+    }
+
+    @DisplayName("grows beyond its initial capacity")
+    @Test
+    void growsBeyondInitialCapacity() {
+        TableBuilder builder = Table.builder(TableHeader.createPrimaryKey("x"));
+        List.range(0, 1000).forEach(i -> builder.addRow(String.valueOf(i)));
+
+        Table table = builder.build();
+
+        assertThat(table.getRows()).hasSize(1000);
+        assertThat(table.getRows().last().primaryKey()).isEqualTo(PrimaryKey.of("999"));
+    }
+
+    @DisplayName("stores dictionary encoded columns")
+    @Test
+    void storesDictionaryEncodedColumns() {
+        ValueDictionary dictionary = ValueDictionary.create();
+        Table header = Table.create(TableHeader.createPrimaryKey("x"), TableHeader.create("status"));
+
+        Table encoded = Table.builder(header.getHeaders())
+                .withDictionary(dictionary, "status")
+                .addRow("a", "OK")
+                .addRow("b", "FAILED")
+                .addRow("c", "OK")
+                .addRow("d")
+                .build()
+                .addRow("e", null);
+
+        assertThat(dictionary.size()).isEqualTo(3);
+        assertThat(encoded.toString()).isEqualTo(header
+                .addRow("a", "OK")
+                .addRow("b", "FAILED")
+                .addRow("c", "OK")
+                .addRow("d")
+                .addRow("e", null)
+                .toString());
+    }
+
+    @DisplayName("compares dictionary encoded columns like plain columns")
+    @Test
+    void comparesDictionaryEncodedColumns() {
+        ValueDictionary dictionary = ValueDictionary.create();
+        Table newTable = Table.builder(TableHeader.createPrimaryKey("x"), TableHeader.create("status"))
+                .withDictionary(dictionary, "status")
+                .addRow("a", "OK").addRow("b", "OK").addRow("c", "OK")
+                .build();
+        Table oldTable = Table.builder(TableHeader.createPrimaryKey("x"), TableHeader.create("status"))
+                .withDictionary(dictionary, "status")
+                .addRow("a", "OK").addRow("b", "FAILED")
+                .build();
+        Table plainOldTable = Table.create(TableHeader.createPrimaryKey("x"), TableHeader.create("status"))
+                .addRow("a", "OK").addRow("b", "FAILED");
+
+        List<TableDiffResult> result = new TableDiffer().diff(newTable, oldTable);
+
+        assertThat(result).extracting(TableDiffResult::getDiffType)
+                .containsExactly(DiffType.Unchanged, DiffType.Changed, DiffType.New);
+        assertThat(new TableDiffer().diff(newTable, plainOldTable).toString()).isEqualTo(result.toString());
+    }
+
+    @DisplayName("assigns one code per distinct value when a dictionary is shared by concurrent builders")
+    @Test
+    void encodesConcurrently() throws Exception {
+        ValueDictionary dictionary = ValueDictionary.create();
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        try {
+            java.util.List<Future<java.util.List<Integer>>> codes = new java.util.ArrayList<>();
+            for (int worker = 0; worker < 4; worker++) {
+                codes.add(workers.submit(() -> List.range(0, 10_000)
+                        .map(i -> dictionary.encode(i % 100 == 0 ? null : "value-" + (i % 500)))
+                        .toJavaList()));
+            }
+
+            for (Future<java.util.List<Integer>> workerCodes : codes) {
+                assertThat(workerCodes.get()).isEqualTo(codes.get(0).get());
+            }
+        } finally {
+            workers.shutdown();
+        }
+        assertThat(dictionary.size()).isEqualTo(496);
+        assertThat(dictionary.decode(dictionary.encode(null))).isNull();
+        assertThat(dictionary.decode(dictionary.encode("value-1"))).isEqualTo("value-1");
+        assertThat(dictionary.size()).isEqualTo(496);
+    }
+
+    @DisplayName("fails to encode unknown columns or after rows have been added")
+    @Test
+    void failsToEncodeUnknownColumns() {
+        TableBuilder builder = Table.builder(TableHeader.createPrimaryKey("x"));
+
+        assertThatThrownBy(() -> builder.withDictionary(ValueDictionary.create(), "y"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> builder.addRow("a").withDictionary(ValueDictionary.create(), "x"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @DisplayName("can only be built once")
+    @Test
+    void canOnlyBeBuiltOnce() {
+        TableBuilder builder = Table.builder(TableHeader.createPrimaryKey("x"));
+        builder.build();
+
+        assertThatThrownBy(() -> builder.addRow("a")).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.dmn1k.table.diff;
 
+import io.vavr.collection.Iterator;
 import io.vavr.collection.List;
 import io.vavr.control.Option;
 import org.junit.jupiter.api.DisplayName;
@@ -8,9 +9,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class TableDifferTest {
     @DisplayName("in case of two symmetric tables (columns are the same)")
@@ -118,6 +126,27 @@ class TableDifferTest {
                 assertThat(result.get(1).getDiffType()).isEqualTo(DiffType.Deleted);
                 assertThat(result.get(2).getDiffType()).isEqualTo(DiffType.Changed);
             }
+
+            @DisplayName("if composite primary keys only match when concatenated")
+            @Test
+            void doesntMatchCompositeKeysWithSameConcatenation() {
+                TableDiffer tableDiffer = new TableDiffer();
+                Table header = Table.create(
+                        TableHeader.createPrimaryKey("x"),
+                        TableHeader.createPrimaryKey("y"),
+                        TableHeader.create("z")
+                );
+
+                List<TableDiffResult> result = tableDiffer.diff(
+                        header.addRow("1", "23", "a"),
+                        header.addRow("12", "3", "a")
+                );
+
+                assertThat(result).extracting(TableDiffResult::getDiffType)
+                        .containsExactly(DiffType.New, DiffType.Deleted);
+                assertThat(result).extracting(TableDiffResult::getPrimaryKey)
+                        .containsExactly(PrimaryKey.of("1", "23"), PrimaryKey.of("12", "3"));
+            }
         }
 
         @Nested
@@ -200,6 +229,96 @@ class TableDifferTest {
                 assertThat(result.get(0).getDiffType()).isEqualTo(DiffType.Changed);
             }
 
+            @DisplayName("with information on which columns have changed")
+            @Test
+            void returnsChangedColumns() {
+                TableDiffer tableDiffer = new TableDiffer();
+                Table header = Table.create(
+                        TableHeader.createPrimaryKey("x"),
+                        TableHeader.create("y"),
+                        TableHeader.create("z"),
+                        TableHeader.create("a")
+                );
+
+                List<TableDiffResult> result = tableDiffer.diff(
+                        Option.of(header.addRow("1", "2", "3", "4").addRow("2", "2", "3", "4")),
+                        Option.of(header.addRow("1", "5", "3", "6").addRow("2", "2", "3", "4"))
+                );
+
+                assertThat(result.get(0).getChangedColumns()).isEqualTo(BitSet.valueOf(new long[]{0b1010}));
+                assertThat(result.get(0).getChangedHeaders())
+                        .containsExactly(TableHeader.create("y"), TableHeader.create("a"));
+                assertThat(result.get(1).getChangedColumns().isEmpty()).isTrue();
+                assertThat(result.get(1).getChangedHeaders()).isEmpty();
+            }
+
+            @DisplayName("with the same changed headers after spilling and from snapshots")
+            @Test
+            void returnsChangedHeadersOnEveryPath() throws IOException {
+                Table header = Table.create(TableHeader.createPrimaryKey("x"), TableHeader.create("v"));
+                Table newTable = header.addRow("2", "b").addRow("1", "a");
+                Table oldTable = header.addRow("1", "x").addRow("2", "b");
+                Path file = Files.createTempFile("table-diff-test", ".snapshot");
+                try {
+                    TableSnapshot.write(oldTable, file);
+                    try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+                        List<List<TableHeader>> inMemory = new TableDiffer().diff(newTable, oldTable)
+                                .map(TableDiffResult::getChangedHeaders);
+                        List<List<TableHeader>> spilled = new TableDiffer().withMemoryBudget(2)
+                                .diffUnsorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                                .map(TableDiffResult::getChangedHeaders)
+                                .toList();
+                        List<List<TableHeader>> fromSnapshot = new TableDiffer().diff(newTable, snapshot)
+                                .map(TableDiffResult::getChangedHeaders);
+
+                        assertThat(inMemory).containsExactly(List.of(TableHeader.create("v")), List.empty());
+                        assertThat(spilled).isEqualTo(inMemory);
+                        assertThat(fromSnapshot).isEqualTo(inMemory);
+                    }
+                } finally {
+                    Files.delete(file);
+                }
+            }
+
+            @DisplayName("if a custom comparison fn considers identical cells as different")
+            @Test
+            void usesCustomComparisonFnForIdenticalRows() {
+                TableDiffer tableDiffer = new TableDiffer()
+                        .withColumnComparisonStrategy((a, b) -> a.isPrimaryKey());
+                Table header = Table.create(
+                        TableHeader.createPrimaryKey("x"),
+                        TableHeader.create("y")
+                );
+
+                List<TableDiffResult> result = tableDiffer.diff(
+                        Option.of(header.addRow("1", "2")),
+                        Option.of(header.addRow("1", "2"))
+                );
+
+                assertThat(result).hasSize(1);
+                assertThat(result.get(0).getDiffType()).isEqualTo(DiffType.Changed);
+            }
+
+            @DisplayName("if a custom comparison strategy considers different cells as different")
+            @Test
+            void usesCustomComparisonStrategy() {
+                ColumnComparisonStrategy ignoringCase = (a, b) -> a.getValue().equalsIgnoreCase(b.getValue());
+                TableDiffer tableDiffer = new TableDiffer().withColumnComparisonStrategy(ignoringCase);
+                Table header = Table.create(
+                        TableHeader.createPrimaryKey("x"),
+                        TableHeader.create("y")
+                );
+
+                List<TableDiffResult> result = tableDiffer.diff(
+                        header.addRow("1", "a").addRow("2", "b"),
+                        header.addRow("1", "A").addRow("2", "c")
+                );
+
+                assertThat(result).extracting(TableDiffResult::getDiffType)
+                        .containsExactly(DiffType.Unchanged, DiffType.Changed);
+                assertThat(ColumnComparisonStrategy.of(ignoringCase)).isSameAs(ignoringCase);
+            }
+
             @DisplayName("if row identified by composite key has changed")
             @Test
             void returnsChangedResultIfCellChangedIdentifiedByCompositeKey() {
@@ -525,4 +644,277 @@ class TableDifferTest {
         }
     }
 
+
+    @DisplayName("when diffing rows sorted by primary key as a stream")
+    @Nested
+    class SortedStreamCases {
+        private final Table header = Table.create(
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("y")
+        );
+
+        @DisplayName("returns the same results as diffing the whole tables")
+        @Test
+        void returnsSameResultsAsDiff() {
+            TableDiffer tableDiffer = new TableDiffer();
+            Table newTable = header.addRow("a", "1").addRow("b", "2").addRow("d", "4");
+            Table oldTable = header.addRow("b", "2").addRow("c", "3").addRow("d", "5");
+
+            List<TableDiffResult> result = tableDiffer
+                    .diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                    .toList();
+
+            assertThat(result).extracting(TableDiffResult::getDiffType)
+                    .containsExactly(DiffType.New, DiffType.Unchanged, DiffType.Deleted, DiffType.Changed);
+            assertThat(result.map(TableDiffResult::getDiffType))
+                    .isEqualTo(tableDiffer.diff(newTable, oldTable).map(TableDiffResult::getDiffType));
+        }
+
+        @DisplayName("only consumes rows as far as results are requested")
+        @Test
+        void consumesRowsLazily() {
+            TableDiffer tableDiffer = new TableDiffer();
+            Iterator<TableRow> endlessRows = Iterator.from(0)
+                    .map(i -> header.addRow(String.format("%010d", i), "v").getRows().head());
+
+            List<TableDiffResult> result = tableDiffer
+                    .diffSorted(endlessRows, header.addRow("0000000001", "v").getRows().iterator())
+                    .take(3)
+                    .toList();
+
+            assertThat(result).extracting(TableDiffResult::getDiffType)
+                    .containsExactly(DiffType.New, DiffType.Unchanged, DiffType.New);
+        }
+
+        @DisplayName("fails if rows are not sorted by primary key")
+        @Test
+        void failsForUnsortedRows() {
+            TableDiffer tableDiffer = new TableDiffer();
+            Table unsorted = header.addRow("b", "1").addRow("a", "2");
+
+            assertThatThrownBy(() -> tableDiffer
+                    .diffSorted(unsorted.getRows().iterator(), header.getRows().iterator())
+                    .toList())
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+
+    @DisplayName("when diffing unsorted rows as a stream")
+    @Nested
+    class UnsortedStreamCases {
+        private final Table header = Table.create(
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("y")
+        );
+
+        @DisplayName("returns the same results as diffing the whole tables")
+        @Test
+        void returnsSameResultsAsDiff() {
+            TableDiffer tableDiffer = new TableDiffer();
+            Table newTable = header.addRow("d", "4").addRow("a", "1").addRow("b", "2");
+            Table oldTable = header.addRow("c", "3").addRow("d", "5").addRow("b", "2");
+
+            List<TableDiffResult> result = tableDiffer
+                    .diffUnsorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                    .toList();
+
+            assertThat(result.map(TableDiffResult::toString))
+                    .isEqualTo(tableDiffer.diff(newTable, oldTable).map(TableDiffResult::toString));
+        }
+
+        @DisplayName("spills rows to disk if they exceed the memory budget")
+        @Test
+        void spillsRowsExceedingMemoryBudget() throws IOException {
+            Path spillDirectory = Files.createTempDirectory("table-diff-test");
+            TableDiffer tableDiffer = new TableDiffer()
+                    .withMemoryBudget(1024)
+                    .withSpillDirectory(spillDirectory);
+            TableBuilder newTable = Table.builder(header.getHeaders());
+            TableBuilder oldTable = Table.builder(header.getHeaders());
+            List.range(0, 500).forEach(i -> {
+                newTable.addRow(String.valueOf((i * 7) % 500), String.valueOf(i));
+                oldTable.addRow(String.valueOf((i * 3) % 500), String.valueOf(i % 2 == 0 ? i : -i));
+            });
+            Table expectedNew = newTable.build();
+            Table expectedOld = oldTable.build();
+
+            Iterator<TableDiffResult> result = tableDiffer
+                    .diffUnsorted(expectedNew.getRows().iterator(), expectedOld.getRows().iterator());
+
+            assertThat(Files.list(spillDirectory).count()).isGreaterThan(1);
+            assertThat(result.toList().map(TableDiffResult::toString))
+                    .isEqualTo(tableDiffer.diff(expectedNew, expectedOld).map(TableDiffResult::toString));
+            assertThat(Files.list(spillDirectory).count()).isZero();
+            Files.delete(spillDirectory);
+        }
+
+        @DisplayName("deletes spilled rows if the results are closed before they have been read completely")
+        @Test
+        void deletesSpilledRowsOnClose() throws IOException {
+            Path spillDirectory = Files.createTempDirectory("table-diff-test");
+            TableDiffer tableDiffer = new TableDiffer()
+                    .withMemoryBudget(2)
+                    .withSpillDirectory(spillDirectory);
+            TableBuilder builder = Table.builder(header.getHeaders());
+            List.range(0, 100).forEach(i -> builder.addRow(String.valueOf(99 - i), String.valueOf(i)));
+            Table table = builder.build();
+
+            try (CloseableIterator<TableDiffResult> result = tableDiffer
+                    .diffUnsorted(table.getRows().iterator(), table.getRows().iterator())) {
+                assertThat(result.take(3).map(TableDiffResult::getPrimaryKey).toList())
+                        .containsExactly(PrimaryKey.of("0"), PrimaryKey.of("1"), PrimaryKey.of("10"));
+                assertThat(Files.list(spillDirectory).count()).isGreaterThan(0);
+            }
+
+            assertThat(Files.list(spillDirectory).count()).isZero();
+            Files.delete(spillDirectory);
+        }
+    }
+
+
+    @DisplayName("when diffing in parallel")
+    @Nested
+    class ParallelCases {
+        @DisplayName("returns the same results in the same order as diffing sequentially")
+        @Test
+        void returnsSameResultsAsSequentialDiff() {
+            TableBuilder newTable = Table.builder(TableHeader.createPrimaryKey("x"), TableHeader.create("y"));
+            TableBuilder oldTable = Table.builder(TableHeader.createPrimaryKey("x"), TableHeader.create("y"));
+            List.range(0, 1000).forEach(i -> {
+                newTable.addRow(String.valueOf(i), String.valueOf(i % 3));
+                oldTable.addRow(String.valueOf(i + 100), String.valueOf(i % 5));
+            });
+            Table newRows = newTable.build();
+            Table oldRows = oldTable.build();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+
+            try {
+                List<TableDiffResult> result = new TableDiffer()
+                        .withParallelism(8, executor)
+                        .diff(newRows, oldRows);
+
+                assertThat(result.map(TableDiffResult::toString))
+                        .isEqualTo(new TableDiffer().diff(newRows, oldRows).map(TableDiffResult::toString));
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        @DisplayName("requires at least one partition")
+        @Test
+        void requiresAtLeastOnePartition() {
+            assertThatThrownBy(() -> new TableDiffer().withParallelism(0))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+
+    @DisplayName("when restricted to some diff-types")
+    @Nested
+    class FilteredCases {
+        private final Table header = Table.create(
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("y")
+        );
+        private final Table newTable = header.addRow("a", "1").addRow("b", "2").addRow("d", "4");
+        private final Table oldTable = header.addRow("b", "2").addRow("c", "3").addRow("d", "5");
+
+        @DisplayName("only returns results of these types")
+        @Test
+        void returnsOnlyResultsOfGivenTypes() {
+            TableDiffer tableDiffer = new TableDiffer().withDiffTypes(DiffType.New, DiffType.Changed);
+
+            List<TableDiffResult> result = tableDiffer.diff(newTable, oldTable);
+
+            assertThat(result).extracting(TableDiffResult::getDiffType)
+                    .containsExactly(DiffType.New, DiffType.Changed);
+            assertThat(tableDiffer.diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator()).toList())
+                    .isEqualTo(result);
+        }
+
+        @DisplayName("passes results of these types to a sink in primary key order")
+        @Test
+        void passesResultsToSink() {
+            java.util.List<TableDiffResult> sink = new java.util.ArrayList<>();
+
+            new TableDiffer()
+                    .withDiffTypes(DiffType.Deleted, DiffType.Changed, DiffType.New)
+                    .diff(newTable, oldTable, sink::add);
+
+            assertThat(sink).extracting(TableDiffResult::getPrimaryKey)
+                    .containsExactly(PrimaryKey.of("a"), PrimaryKey.of("c"), PrimaryKey.of("d"));
+        }
+    }
+
+    @Nested
+    @DisplayName("when summarizing")
+    class SummaryCases {
+        private final Table header = Table.create(
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("y"),
+                TableHeader.create("z")
+        );
+        private final Table newTable = header.addRow("a", "1", "1").addRow("b", "2", "2")
+                .addRow("d", "4", "4").addRow("e", "5", "6").addRow("f", "6", "6");
+        private final Table oldTable = header.addRow("b", "2", "2").addRow("c", "3", "3")
+                .addRow("d", "5", "4").addRow("e", "6", "5").addRow("f", "6", "6");
+
+        @DisplayName("counts rows per diff-type and changed rows per column")
+        @Test
+        void countsPerDiffTypeAndColumn() {
+            DiffSummary summary = new TableDiffer().withDiffTypes(DiffType.New).summarize(newTable, oldTable);
+
+            assertThat(summary.getCount(DiffType.New)).isEqualTo(1);
+            assertThat(summary.getCount(DiffType.Deleted)).isEqualTo(1);
+            assertThat(summary.getCount(DiffType.Changed)).isEqualTo(2);
+            assertThat(summary.getCount(DiffType.Unchanged)).isEqualTo(2);
+            assertThat(summary.getTotalCount()).isEqualTo(6);
+            assertThat(summary.getChangedColumnCounts().get(TableHeader.create("y")).get()).isEqualTo(2);
+            assertThat(summary.getChangedColumnCounts().get(TableHeader.create("z")).get()).isEqualTo(1);
+            assertThat(summary.getSampleKeys(DiffType.Changed)).isEmpty();
+        }
+
+        @DisplayName("keeps the lowest keys as samples")
+        @Test
+        void keepsSampleKeys() {
+            DiffSummary summary = new TableDiffer().summarize(Option.of(newTable), Option.of(oldTable), 1);
+
+            assertThat(summary.getSampleKeys(DiffType.Changed)).containsExactly(PrimaryKey.of("d"));
+            assertThat(summary.getSampleKeys(DiffType.Unchanged)).containsExactly(PrimaryKey.of("b"));
+        }
+
+        @DisplayName("summarizes like collecting all diff-results, also in parallel")
+        @Test
+        void summarizesLikeCollectingResults() {
+            TableBuilder newRows = Table.builder(header.getHeaders());
+            TableBuilder oldRows = Table.builder(header.getHeaders());
+            for (int i = 0; i < 500; i++) {
+                newRows.addRow(String.valueOf(i + 100), String.valueOf(i % 3), i % 7 == 0 ? "new" : "old");
+                oldRows.addRow(String.valueOf(i), String.valueOf(i % 3 == 1 ? 0 : i % 3), "old");
+            }
+            Table largeNewTable = newRows.build();
+            Table largeOldTable = oldRows.build();
+            DiffSummary.Collector collector = DiffSummary.collector(3);
+            new TableDiffer().diff(largeNewTable, largeOldTable, collector);
+
+            assertThat(new TableDiffer().summarize(Option.of(largeNewTable), Option.of(largeOldTable), 3))
+                    .isEqualTo(collector.toSummary());
+            assertThat(new TableDiffer().withParallelism(3)
+                    .summarize(Option.of(largeNewTable), Option.of(largeOldTable), 3))
+                    .isEqualTo(collector.toSummary());
+        }
+
+        @DisplayName("summarizes sorted streams via the collector")
+        @Test
+        void summarizesStreams() {
+            DiffSummary.Collector collector = DiffSummary.collector(0);
+
+            new TableDiffer().diffSorted(newTable.getRows().iterator(), oldTable.getRows().iterator())
+                    .forEach(collector);
+
+            assertThat(collector.toSummary()).isEqualTo(new TableDiffer().summarize(newTable, oldTable));
+        }
+    }
+
 }
@@ -0,0 +1,125 @@
+package com.github.dmn1k.table.diff;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableFileTest {
+    private final Table header = Table.create(
+            TableHeader.createPrimaryKey("x"),
+            TableHeader.create("y"),
+            TableHeader.create("z")
+    );
+    private final Table oldTable = header
+            .addRow("c", "3", "3")
+            .addRow("a", "1", "1")
+            .addRow("b", "2", null)
+            .addRow("d", "4");
+    private final Table newTable = header
+            .addRow("e", "5", "Größe")
+            .addRow("b", "2", null)
+            .addRow("a", "1", "0")
+            .addRow("d", "4", "");
+
+    private Path newFile;
+    private Path oldFile;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        newFile = Files.createTempFile("table-diff-test", ".table");
+        oldFile = Files.createTempFile("table-diff-test", ".table");
+    }
+
+    @AfterEach
+    void deleteFiles() throws IOException {
+        Files.delete(newFile);
+        Files.delete(oldFile);
+    }
+
+    @DisplayName("reads the same table which was written")
+    @Test
+    void readsWrittenTable() throws IOException {
+        TableFile.write(newTable, newFile);
+
+        Table read = TableFile.open(newFile).getTable();
+
+        assertThat(read.toString()).isEqualTo(newTable.toString());
+        assertThat(read.getHeaders()).isEqualTo(newTable.getHeaders());
+    }
+
+    @DisplayName("reads missing cells, null values and fingerprints of rows beyond the first bitmap word")
+    @Test
+    void readsBitmapsAndFingerprintsOfManyRows() throws IOException {
+        TableBuilder builder = Table.builder(header.getHeaders());
+        for (int row = 0; row < 200; row++) {
+            if (row % 3 == 0) {
+                builder.addRow(String.valueOf(row), String.valueOf(row));
+            } else {
+                builder.addRow(String.valueOf(row), String.valueOf(row), row % 5 == 0 ? null : "z" + row);
+            }
+        }
+        Table table = builder.build();
+        TableFile.write(table, newFile);
+
+        Table read = TableFile.open(newFile).getTable();
+
+        for (int row = 0; row < table.rowCount(); row++) {
+            assertThat(read.getColumn(2).isMissing(row)).isEqualTo(table.getColumn(2).isMissing(row));
+            assertThat(read.getColumn(2).getValue(row)).isEqualTo(table.getColumn(2).getValue(row));
+            assertThat(read.row(row).fingerprint()).isEqualTo(table.row(row).fingerprint());
+        }
+        assertThat(read.getColumn(2).copyMissing()).isEqualTo(table.getColumn(2).copyMissing());
+    }
+
+    @DisplayName("adds rows to a mapped table")
+    @Test
+    void addsRowsToMappedTable() throws IOException {
+        TableFile.write(oldTable, oldFile);
+
+        Table extended = TableFile.open(oldFile).getTable().addRow("e", "5", "Größe");
+
+        Table inMemory = oldTable.addRow("e", "5", "Größe");
+        assertThat(extended.toString()).isEqualTo(inMemory.toString());
+        assertThat(new TableDiffer().diff(extended, newTable).toString())
+                .isEqualTo(new TableDiffer().diff(inMemory, newTable).toString());
+    }
+
+    @DisplayName("diffs mapped tables like tables in memory")
+    @Test
+    void diffsMappedTables() throws IOException {
+        TableFile.write(newTable, newFile);
+        TableFile.write(oldTable, oldFile);
+        TableFile mappedNew = TableFile.open(newFile);
+        TableFile mappedOld = TableFile.open(oldFile);
+        String expected = new TableDiffer().diff(newTable, oldTable).toString();
+
+        assertThat(new TableDiffer().diff(mappedNew.getTable(), mappedOld.getTable()).toString()).isEqualTo(expected);
+        assertThat(new TableDiffer().diffSorted(mappedNew, mappedOld).toList().toString()).isEqualTo(expected);
+        assertThat(new TableDiffer().diff(mappedNew.getTable(), oldTable).toString()).isEqualTo(expected);
+    }
+
+    @DisplayName("iterates rows in order of their primary keys")
+    @Test
+    void iteratesRowsByPrimaryKey() throws IOException {
+        TableFile.write(oldTable, oldFile);
+
+        assertThat(TableFile.open(oldFile).rowsSortedByPrimaryKey(oldTable.getHeaders()).map(TableRow::primaryKey).toList())
+                .containsExactly(PrimaryKey.of("a"), PrimaryKey.of("b"), PrimaryKey.of("c"), PrimaryKey.of("d"));
+    }
+
+    @DisplayName("fails to open other files")
+    @Test
+    void failsToOpenOtherFiles() throws IOException {
+        Files.write(newFile, new byte[]{1, 2, 3, 4, 5});
+
+        assertThatThrownBy(() -> TableFile.open(newFile)).isInstanceOf(IOException.class);
+    }
+}
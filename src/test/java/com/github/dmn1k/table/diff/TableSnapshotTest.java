@@ -0,0 +1,177 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TableSnapshotTest {
+    private final Table header = Table.create(
+            TableHeader.createPrimaryKey("x"),
+            TableHeader.create("y"),
+            TableHeader.create("z")
+    );
+    private final Table oldTable = header
+            .addRow("a", "1", "1")
+            .addRow("b", "2", "2")
+            .addRow("c", "3", "3")
+            .addRow("d", "4")
+            .addRow("b", "9", "9");
+    private final Table newTable = header
+            .addRow("e", "5", "5")
+            .addRow("b", "2", "2")
+            .addRow("a", "1", "0")
+            .addRow("d", "4");
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("table-diff-test", ".snapshot");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    @DisplayName("diffs a table against a snapshot like against the table itself")
+    @Test
+    void diffsLikeTable() throws IOException {
+        TableSnapshot.write(oldTable, file);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            assertThat(snapshot.getRowCount()).isEqualTo(4);
+            assertThat(new TableDiffer().diff(newTable, snapshot).toString())
+                    .isEqualTo(new TableDiffer().diff(newTable, oldTable).toString());
+        }
+    }
+
+    @DisplayName("diffs a table with different headers against a snapshot")
+    @Test
+    void diffsTableWithDifferentHeaders() throws IOException {
+        TableSnapshot.write(oldTable, file);
+        Table reorderedTable = Table.create(
+                TableHeader.create("z"),
+                TableHeader.createPrimaryKey("x"),
+                TableHeader.create("w"))
+                .addRow("1", "a", "A")
+                .addRow("2", "b", "B");
+        TableDiffer tableDiffer = new TableDiffer()
+                .withColumnComparisonStrategy(ColumnComparisonStrategies.IGNORE_ALL_MISSING_COLUMNS);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            List<TableDiffResult> result = tableDiffer.diff(reorderedTable, snapshot);
+
+            assertThat(result.toString()).isEqualTo(tableDiffer.diff(reorderedTable, oldTable).toString());
+            assertThat(result.map(TableDiffResult::getDiffType))
+                    .containsExactly(DiffType.Unchanged, DiffType.Unchanged, DiffType.Deleted, DiffType.Deleted);
+        }
+    }
+
+    @DisplayName("only creates results of the given diff-types")
+    @Test
+    void createsResultsOfGivenDiffTypes() throws IOException {
+        TableSnapshot.write(oldTable, file);
+        TableDiffer tableDiffer = new TableDiffer().withDiffTypes(DiffType.Changed, DiffType.New);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            assertThat(tableDiffer.diff(newTable, snapshot).map(TableDiffResult::getPrimaryKey))
+                    .containsExactly(PrimaryKey.of("a"), PrimaryKey.of("d"), PrimaryKey.of("e"));
+        }
+    }
+
+    @DisplayName("diffs large tables against a snapshot like against the table itself")
+    @Test
+    void diffsLargeTablesLikeTable() throws IOException {
+        TableBuilder oldRows = Table.builder(header.getHeaders());
+        TableBuilder newRows = Table.builder(header.getHeaders());
+        for (int i = 0; i < 2000; i++) {
+            oldRows.addRow(String.valueOf(i), String.valueOf(i), "old");
+            if (i % 5 != 0) {
+                newRows.addRow(String.valueOf(i + 500), String.valueOf(i + 500), i % 7 == 0 ? "new" : "old");
+            }
+        }
+        Table largeOldTable = oldRows.build();
+        Table largeNewTable = newRows.build();
+        TableSnapshot.write(largeOldTable, file);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            assertThat(new TableDiffer().diff(largeNewTable, snapshot).toString())
+                    .isEqualTo(new TableDiffer().diff(largeNewTable, largeOldTable).toString());
+        }
+    }
+
+    @DisplayName("only reads rows of changed and deleted keys from a snapshot")
+    @Test
+    void onlyReadsChangedAndDeletedRows() throws IOException {
+        TableSnapshot.write(oldTable, file);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            TableSnapshot.Matches matches = snapshot.match(newTable.getRows().toJavaList(), true, true,
+                    snapshot.layout(header.getHeaders()));
+
+            assertThat(List.range(0, 4).filter(matches::isUnchanged)).containsExactly(1);
+            assertThat(matches.oldRow(PrimaryKey.of("a")).getCell(2).getValue()).isEqualTo("1");
+            assertThat(matches.oldRow(PrimaryKey.of("d")).getCell(1).getValue()).isEqualTo("4");
+            assertThat(matches.oldRow(PrimaryKey.of("b"))).isNull();
+            assertThat(matches.oldRow(PrimaryKey.of("e"))).isNull();
+            assertThat(List.ofAll(matches.deletedRows()).map(TableRow::primaryKey))
+                    .containsExactly(PrimaryKey.of("c"));
+        }
+    }
+
+    @DisplayName("replaces a snapshot which is still open")
+    @Test
+    void replacesOpenSnapshot() throws IOException {
+        TableSnapshot.write(oldTable, file);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            TableSnapshot.write(newTable, file);
+
+            assertThat(new TableDiffer().diff(newTable, snapshot)).hasSize(5);
+        }
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            assertThat(new TableDiffer().diff(newTable, snapshot).toString())
+                    .isEqualTo(new TableDiffer().diff(newTable, newTable).toString());
+        }
+    }
+
+    @DisplayName("classifies appended keys without reading rows from a snapshot")
+    @Test
+    void classifiesAppendedKeysWithoutReadingRows() throws IOException {
+        TableBuilder appended = Table.builder(header.getHeaders());
+        for (int row = 0; row < 2000; row++) {
+            appended.addRow("k" + row, String.valueOf(row), row % 7 == 0 ? "changed" : "3");
+        }
+        TableSnapshot.write(oldTable, file);
+
+        try (TableSnapshot snapshot = TableSnapshot.open(file)) {
+            Table appendedTable = appended.build();
+            TableSnapshot.Matches matches = snapshot.match(appendedTable.getRows().toJavaList(), true, false,
+                    snapshot.layout(header.getHeaders()));
+
+            assertThat(List.range(0, appendedTable.rowCount()).exists(matches::isUnchanged)).isFalse();
+            assertThat(appendedTable.getRows().map(row -> matches.oldRow(row.primaryKey()))).containsOnlyNulls();
+            assertThat(matches.deletedRows()).isEmpty();
+            assertThat(new TableDiffer().diff(appendedTable, snapshot).toString())
+                    .isEqualTo(new TableDiffer().diff(appendedTable, oldTable).toString());
+        }
+    }
+
+    @DisplayName("fails to open other files")
+    @Test
+    void failsToOpenOtherFiles() throws IOException {
+        Files.write(file, new byte[]{1, 2, 3, 4, 5});
+
+        assertThatThrownBy(() -> TableSnapshot.open(file)).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.dmn1k.table.diff;
+
+import io.vavr.collection.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableTest {
+    @DisplayName("normalize returns the table itself if the headers already match")
+    @Test
+    void normalizeReturnsSameTableForMatchingHeaders() {
+        Table table = Table.create(TableHeader.createPrimaryKey("x"), TableHeader.create("y"))
+                .addRow("a", "1");
+
+        assertThat(table.normalize(table.getHeaders())).isSameAs(table);
+    }
+
+    @DisplayName("normalize reorders columns and adds missing ones")
+    @Test
+    void normalizeReordersAndAddsColumns() {
+        Table table = Table.create(TableHeader.createPrimaryKey("x"), TableHeader.create("y"))
+                .addRow("a", "1")
+                .addRow("b", "2");
+
+        Table normalized = table.normalize(List.of(
+                TableHeader.create("z"),
+                TableHeader.create("y"),
+                TableHeader.createPrimaryKey("x")
+        ));
+
+        assertThat(normalized.getRows().map(TableRow::getCells)).containsExactly(
+                List.of(TableCell.MISSING_CELL, TableCell.create("1", false), TableCell.create("a", true)),
+                List.of(TableCell.MISSING_CELL, TableCell.create("2", false), TableCell.create("b", true))
+        );
+    }
+}